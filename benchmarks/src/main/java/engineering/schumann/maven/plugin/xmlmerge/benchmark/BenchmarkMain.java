@@ -0,0 +1,29 @@
+package engineering.schumann.maven.plugin.xmlmerge.benchmark;
+
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Runs the benchmarks like the JMH main class does, but always reports the
+ * allocation rate along with the throughput.
+ *
+ * Takes the usual JMH arguments, e.g. "MergeBenchmark -p fragments=100".
+ */
+public class BenchmarkMain
+{
+	public static void main(
+		String[] args
+	) throws Exception
+	{
+		var options = new OptionsBuilder()
+			.parent(new CommandLineOptions(args))
+			.addProfiler(GCProfiler.class)
+			.build();
+
+		new Runner(options).run();
+	}
+}
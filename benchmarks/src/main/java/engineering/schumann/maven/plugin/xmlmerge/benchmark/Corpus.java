@@ -0,0 +1,182 @@
+package engineering.schumann.maven.plugin.xmlmerge.benchmark;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+
+/**
+ * Generates synthetic XML documents and input trees, shaped like the Spring
+ * bean definitions the plugin is mostly used for.
+ */
+public final class Corpus
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	public static final String  XDT_NAMESPACE = "http://schemas.microsoft.com/XML-Document-Transform";
+
+	/** a license header, as kept by processProlog */
+	private static final String PROLOG        = String
+		.join(
+			"\n",
+			"Copyright (c) The original author or authors",
+			"",
+			"Licensed under the Apache License, Version 2.0",
+			""
+		);
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	private Corpus()
+	{
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param elements
+	 *            number of children of the root element
+	 * @param idPrefix
+	 *            makes ids unique across documents
+	 * @param xdt
+	 *            true to mark every child to be inserted by XDT
+	 * @return a document with a bean per element
+	 */
+	public static String document(
+		int elements,
+		String idPrefix,
+		boolean xdt
+	)
+	{
+		var xml = new StringBuilder(elements * 160);
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		xml
+			.append(
+				xdt
+					? "<beans xmlns:xdt=\"" + XDT_NAMESPACE + "\">\n"
+					: "<beans>\n"
+			);
+		for (var i = 0; i < elements; i++)
+		{
+			xml
+				.append("\t<bean id=\"")
+				.append(idPrefix)
+				.append(i)
+				.append("\" class=\"com.example.Bean")
+				.append(i % 97)
+				.append('"');
+			if (xdt)
+				xml.append(" xdt:Transform=\"Insert\"");
+			xml
+				.append(">\n\t\t<property name=\"value\" value=\"")
+				.append(i)
+				.append("\"/>\n\t\t<!-- bean ")
+				.append(i)
+				.append(" -->\n\t</bean>\n");
+		}
+		xml.append("</beans>\n");
+
+		return xml.toString();
+	}
+
+
+	/**
+	 * Writes a document, with a license header in front if asked to.
+	 */
+	public static File write(
+		File file,
+		int elements,
+		String idPrefix,
+		boolean xdt,
+		boolean prolog
+	) throws IOException
+	{
+		var content = document(elements, idPrefix, xdt);
+		if (prolog)
+			content = PROLOG + content.substring(content.indexOf('\n') + 1);
+
+		FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+
+		return file;
+	}
+
+
+	/**
+	 * Writes an input tree for the mergeAllIntoOne goal: fragments spread over
+	 * nested directories, plus a "target" directory with the same number of
+	 * fragments in every top level directory, to be excluded.
+	 *
+	 * @param directory
+	 * @param groups
+	 *            number of top level directories
+	 * @param files
+	 *            number of fragments per top level directory
+	 * @param depth
+	 *            number of directories nested in every top level directory
+	 * @param elements
+	 *            number of children of every fragment
+	 * @return the fragments not below a "target" directory
+	 */
+	public static List<File> writeTree(
+		File directory,
+		int groups,
+		int files,
+		int depth,
+		int elements
+	) throws IOException
+	{
+		var written = new ArrayList<File>();
+		for (var group = 0; group < groups; group++)
+		{
+			var groupDirectory = new File(directory, "module" + group);
+			for (var i = 0; i < files; i++)
+			{
+				var nested = groupDirectory;
+				for (var level = 0; level < i % (depth + 1); level++)
+					nested = new File(nested, "level" + level);
+
+				written
+					.add(
+						write(
+							new File(nested, "fragment" + i + "-beans.xml"),
+							elements,
+							"m" + group + "f" + i + "b",
+							false,
+							false
+						)
+					);
+				write(
+					new File(groupDirectory, "target/fragment" + i + "-beans.xml"),
+					elements,
+					"t" + group + "f" + i + "b",
+					false,
+					false
+				);
+			}
+		}
+
+		return written;
+	}
+}
@@ -0,0 +1,128 @@
+package engineering.schumann.maven.plugin.xmlmerge.benchmark;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.DocumentHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import be.hikage.maven.plugin.xmlmerge.XdtMerger;
+import engineering.schumann.maven.plugin.xmlmerge.SimpleMerger;
+
+
+/**
+ * Merges fragments one by one into a base document, like the mergexml goal
+ * does, with both merge modes.
+ */
+@State(Scope.Benchmark)
+public class MergeBenchmark
+	extends
+	AbstractBenchmark
+{
+	/*
+	 * ====================
+	 *
+	 * PARAMETERS
+	 *
+	 * ====================
+	 */
+	@Param({ "100", "10000" })
+	public int            baseElements;
+
+	@Param({ "1", "10", "100" })
+	public int            fragments;
+
+	@Param({ "20" })
+	public int            fragmentElements;
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private Document       f_base;
+
+	private List<Document> f_fragments;
+
+	private List<Document> f_xdtFragments;
+
+	private SimpleMerger   f_simpleMerger;
+
+	private XdtMerger      f_xdtMerger;
+
+
+	/*
+	 * ====================
+	 *
+	 * SETUP
+	 *
+	 * ====================
+	 */
+	@Setup
+	public void setUp() throws DocumentException
+	{
+		f_base          = DocumentHelper
+			.parseText(Corpus.document(baseElements, "base", false));
+		f_fragments     = new ArrayList<>();
+		f_xdtFragments  = new ArrayList<>();
+		for (var i = 0; i < fragments; i++)
+		{
+			f_fragments
+				.add(
+					DocumentHelper
+						.parseText(
+							Corpus.document(fragmentElements, "f" + i + "b", false)
+						)
+				);
+			f_xdtFragments
+				.add(
+					DocumentHelper
+						.parseText(
+							Corpus.document(fragmentElements, "f" + i + "b", true)
+						)
+				);
+		}
+
+		f_simpleMerger  = new SimpleMerger();
+		f_xdtMerger     = new XdtMerger();
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * BENCHMARKS
+	 *
+	 * ====================
+	 */
+	@Benchmark
+	public Document simpleMergeXml()
+	{
+		var merged = f_base;
+		for (var fragment : f_fragments)
+			merged = f_simpleMerger.mergeXml(merged, fragment);
+
+		return merged;
+	}
+
+
+	@Benchmark
+	public Document xdtMergeXml()
+	{
+		var merged = f_base;
+		for (var fragment : f_xdtFragments)
+			merged = f_xdtMerger.mergeXml(merged, fragment);
+
+		return merged;
+	}
+}
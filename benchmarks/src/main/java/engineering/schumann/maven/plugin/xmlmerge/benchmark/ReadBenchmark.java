@@ -0,0 +1,160 @@
+package engineering.schumann.maven.plugin.xmlmerge.benchmark;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import be.hikage.maven.plugin.xmlmerge.utils.Dom4JUtils;
+import engineering.schumann.maven.plugin.xmlmerge.io.ParserBackend;
+import engineering.schumann.maven.plugin.xmlmerge.io.XmlReaderFactory;
+
+
+/**
+ * Parses documents from disk, the way base documents and fragments are read.
+ *
+ * NOTE: loadXml reads with the reader factory the goals read with, once per
+ * parser backend. Small documents show the setup cost of a parser, large ones
+ * its throughput.
+ */
+@State(Scope.Benchmark)
+public class ReadBenchmark
+	extends
+	AbstractBenchmark
+{
+	/*
+	 * ====================
+	 *
+	 * PARAMETERS
+	 *
+	 * ====================
+	 */
+	@Param({ "10", "1000", "100000" })
+	public int elements;
+
+
+	/*
+	 * ====================
+	 *
+	 * TYPES
+	 *
+	 * ====================
+	 */
+	/**
+	 * The readers of a parser backend. Only loadXml depends on it, so only
+	 * loadXml is run for every backend.
+	 */
+	@State(Scope.Benchmark)
+	public static class Readers
+	{
+		@Param({ "sax", "jdk-sax", "stax", "woodstox" })
+		public String            parserBackend;
+
+		private XmlReaderFactory f_readerFactory;
+
+
+		@Setup
+		public void setUp()
+		{
+			f_readerFactory = new XmlReaderFactory(
+				false,
+				List.of(),
+				false,
+				ParserBackend.forName(parserBackend)
+			);
+		}
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private File f_directory;
+
+	private File f_file;
+
+	private File f_fileWithProlog;
+
+
+	/*
+	 * ====================
+	 *
+	 * SETUP
+	 *
+	 * ====================
+	 */
+	@Setup
+	public void setUp() throws IOException
+	{
+		f_directory      = Files.createTempDirectory("readbenchmark").toFile();
+		f_file           = Corpus
+			.write(
+				new File(f_directory, "plain-beans.xml"),
+				elements,
+				"b",
+				false,
+				false
+			);
+		f_fileWithProlog = Corpus
+			.write(
+				new File(f_directory, "prolog-beans.xml"),
+				elements,
+				"b",
+				false,
+				true
+			);
+	}
+
+
+	@TearDown
+	public void tearDown() throws IOException
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * BENCHMARKS
+	 *
+	 * ====================
+	 */
+	@Benchmark
+	public Document loadXml(
+		Readers readers
+	) throws DocumentException
+	{
+		return readers.f_readerFactory.read(f_file);
+	}
+
+
+	@Benchmark
+	public Document readDocument() throws DocumentException, IOException
+	{
+		return Dom4JUtils.readDocument(f_file.toURI().toURL(), null);
+	}
+
+
+	@Benchmark
+	public Document readDocument_prolog() throws DocumentException, IOException
+	{
+		return Dom4JUtils
+			.readDocument(f_fileWithProlog.toURI().toURL(), new StringBuilder());
+	}
+}
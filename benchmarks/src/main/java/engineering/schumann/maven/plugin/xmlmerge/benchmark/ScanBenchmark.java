@@ -0,0 +1,103 @@
+package engineering.schumann.maven.plugin.xmlmerge.benchmark;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import engineering.schumann.maven.plugin.xmlmerge.scan.XmlFileScanner;
+
+
+/**
+ * Finds the fragments to merge in an input tree, with a growing number of
+ * excludes. Only one of them matches, like "/target$" does in real builds.
+ *
+ * NOTE: the scanner the goals use, if scanThreads is 1 and scanIndex false
+ */
+@State(Scope.Benchmark)
+public class ScanBenchmark
+	extends
+	AbstractBenchmark
+{
+	/*
+	 * ====================
+	 *
+	 * PARAMETERS
+	 *
+	 * ====================
+	 */
+	@Param({ "100", "5000" })
+	public int             files;
+
+	@Param({ "1", "30" })
+	public int             excludes;
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private File           f_directory;
+
+	private XmlFileScanner f_scanner;
+
+
+	/*
+	 * ====================
+	 *
+	 * SETUP
+	 *
+	 * ====================
+	 */
+	@Setup
+	public void setUp() throws IOException
+	{
+		f_directory = Files.createTempDirectory("scanbenchmark").toFile();
+		Corpus.writeTree(f_directory, 10, files / 10, 3, 1);
+
+		var patterns = new ArrayList<String>();
+		patterns.add("/target$");
+		for (var i = 1; i < excludes; i++)
+			patterns.add("/generated" + i + "$");
+
+		f_scanner   = new XmlFileScanner("(.*-)(beans\\.xml)", patterns);
+	}
+
+
+	@TearDown
+	public void tearDown() throws IOException
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * BENCHMARKS
+	 *
+	 * ====================
+	 */
+	@Benchmark
+	public List<Path> findXmlToMerge() throws IOException
+	{
+		var found = new ArrayList<Path>();
+		f_scanner.scan(f_directory.toPath(), found::add);
+
+		return found;
+	}
+}
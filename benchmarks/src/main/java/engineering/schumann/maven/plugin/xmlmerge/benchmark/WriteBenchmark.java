@@ -0,0 +1,130 @@
+package engineering.schumann.maven.plugin.xmlmerge.benchmark;
+
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.DocumentHelper;
+import org.dom4j.io.OutputFormat;
+import org.dom4j.io.XMLWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import engineering.schumann.maven.plugin.xmlmerge.io.AtomicOutputFile;
+import engineering.schumann.maven.plugin.xmlmerge.io.OutputStyle;
+
+
+/**
+ * Serializes a merged document to disk, with the output format and the
+ * atomic output file the goals write with, after a license prolog.
+ *
+ * NOTE: every other invocation writes a slightly different document, so the
+ * output is always written and never skipped as unchanged.
+ */
+@State(Scope.Benchmark)
+public class WriteBenchmark
+	extends
+	AbstractBenchmark
+{
+	/*
+	 * ====================
+	 *
+	 * PARAMETERS
+	 *
+	 * ====================
+	 */
+	@Param({ "10", "1000", "100000" })
+	public int          elements;
+
+	@Param({ "pretty", "compact" })
+	public String       outputFormat;
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private File         f_directory;
+
+	private File         f_output;
+
+	private Document[]   f_documents;
+
+	private int          f_invocation;
+
+	private OutputFormat f_format;
+
+
+	/*
+	 * ====================
+	 *
+	 * SETUP
+	 *
+	 * ====================
+	 */
+	@Setup
+	public void setUp() throws IOException, DocumentException
+	{
+		f_directory = Files.createTempDirectory("writebenchmark").toFile();
+		f_output    = new File(f_directory, "merged-beans.xml");
+		f_documents = new Document[] {
+			DocumentHelper.parseText(Corpus.document(elements, "a", false)),
+			DocumentHelper.parseText(Corpus.document(elements, "b", false)) };
+
+		f_format    = OutputStyle.forName(outputFormat).createFormat("UTF-8");
+		f_format.setSuppressDeclaration(true);
+		f_format.setNewLineAfterDeclaration(false);
+	}
+
+
+	@TearDown
+	public void tearDown() throws IOException
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * BENCHMARKS
+	 *
+	 * ====================
+	 */
+	@Benchmark
+	public void writeMergedXml() throws IOException
+	{
+		try (var output = new AtomicOutputFile(f_output))
+		{
+			var out = new BufferedWriter(
+				new OutputStreamWriter(
+					output.getOutputStream(),
+					StandardCharsets.UTF_8
+				),
+				256 * 1024
+			);
+			out.write("<!-- license -->");
+			out.write(f_format.getLineSeparator());
+
+			var writer = new XMLWriter(out, f_format);
+			writer.write(f_documents[f_invocation++ & 1]);
+			writer.close();
+
+			output.commit();
+		}
+	}
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2011  The original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.commons.io.FileUtils
+
+File beans = new File(basedir, "target/classes/beans.xml");
+String beansContent = FileUtils.readFileToString(beans, "ISO-8859-1");
+
+if (!beansContent.contains("id=\"base\"") || !beansContent.contains("id=\"first\"") || !beansContent.contains("id=\"second\""))
+    throw new RuntimeException("The merged beans.xml do not contain all data needed");
+
+if (!beansContent.startsWith("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>"))
+    throw new RuntimeException("The merged beans.xml is not declared as ISO-8859-1");
+
+if (beansContent.contains("    <bean"))
+    throw new RuntimeException("The merged beans.xml is not compact");
@@ -18,7 +18,9 @@ package be.hikage.maven.plugin.xmlmerge;
 
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -26,8 +28,12 @@ import java.util.regex.Pattern;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.dom4j.Document;
 
-import be.hikage.maven.plugin.xmlmerge.utils.Dom4JUtils;
+import be.hikage.maven.plugin.xmlmerge.utils.PathUtils;
 import engineering.schumann.maven.plugin.xmlmerge.AbstractMergeXmlMojo;
+import engineering.schumann.maven.plugin.xmlmerge.DocumentSequence;
+import engineering.schumann.maven.plugin.xmlmerge.incremental.FileFingerprint;
+import engineering.schumann.maven.plugin.xmlmerge.jfr.MergeEvent;
+import engineering.schumann.maven.plugin.xmlmerge.stats.ExecutionStats.Phase;
 
 
 /**
@@ -45,6 +51,8 @@ public class MergeTwoXmlIntoOneXmlMojo
 	{
 		getLog().info("EXECUTE on " + outputDirectory.getAbsolutePath());
 		getLog().info("Process prolog : " + processProlog);
+		getLog().info("Parser backend : " + getParserBackend());
+		getLog().info("Output format : " + getOutputStyle());
 
 		List<File> xmlFiles = new ArrayList<File>();
 
@@ -55,84 +63,206 @@ public class MergeTwoXmlIntoOneXmlMojo
 
 		getLog().info("Number of file found to merge :" + xmlFiles.size());
 
+		List<XmlMergeJob> jobs;
 		try
 		{
-			for (File fileToMerge : xmlFiles)
+			loadBuildState();
+			jobs = planMergeJobs(xmlFiles, regex);
+		}
+		catch (IOException e)
+		{
+			throw new MojoExecutionException("Unable to check build state", e);
+		}
+
+		List<File> filesToMerge = new ArrayList<File>();
+		for (XmlMergeJob job : jobs)
+		{
+			filesToMerge.add(job.getFileToMerge());
+
+			// NOTE: every merge is a file group of its own
+			getStats()
+				.assign(
+					PathUtils.getRelativePath(job.getFileToMerge(), inputDirectory),
+					List
+						.of(
+							job.getBaseFile(),
+							job.getFileToMerge(),
+							job.getOutputFile()
+						)
+				);
+		}
+
+		// NOTE: files to merge are parsed ahead while the previous ones merge
+		try (DocumentSequence documentsToMerge = loadXml(filesToMerge))
+		{
+			Iterator<Document> documents = documentsToMerge.iterator();
+			for (XmlMergeJob job : jobs)
 			{
-				Matcher matcher = regex.matcher(fileToMerge.getName());
-				if (matcher.matches() && matcher.groupCount() == 2)
-				{
+				File          fileToMerge  = job.getFileToMerge();
 
-					String baseFileName = matcher.group(2);
+				StringBuilder prologHeader = processProlog
+					? new StringBuilder()
+					: null;
+				// NOTE: shared with other executions, the merger copies it
+				Document      documentBase = readSharedBaseDocument(
+					job.getBaseFile(),
+					prologHeader
+				);
+				Document      mergeData    = documents.next();
 
-					File   basefile     = getBaseFile(
-						fileToMerge,
-						baseFileName
+				MergeEvent    event        = new MergeEvent();
+				event.begin();
+				long          started      = System.nanoTime();
+				Document      result       = xmlMerger
+					.mergeXml(documentBase, mergeData);
+				getStats()
+					.add(
+						job.getOutputFile(),
+						Phase.MERGE,
+						System.nanoTime() - started
 					);
-					File   outputFile   = getOutputFile(
-						fileToMerge,
-						baseFileName
+				event
+					.finish(
+						job.getOutputFile(),
+						getStats(),
+						getMergeMode(),
+						fileToMerge::length
 					);
 
-					getLog().debug("Merge Base :" + basefile.getAbsolutePath());
-					getLog()
-						.debug(
-							"Merge Transform :" + fileToMerge.getAbsolutePath()
-						);
-					getLog()
-						.debug("Merge Output :" + outputFile.getAbsolutePath());
+				writeMergedXml(job.getOutputFile(), result, prologHeader);
+				storeInCache(
+					getCacheKey(job.getInputFingerprints()),
+					job.getOutputFile()
+				);
+				recordMerge(job.getOutputFile(), job.getInputFingerprints());
 
-					if (basefile.exists())
-					{
+				removeMergeDocument(fileToMerge);
+			}
+		}
+		catch (Exception e)
+		{
+			throw new MojoExecutionException("Unable to merge xml", e);
+		}
+		finally
+		{
+			shutdownParseExecutor();
 
-						StringBuilder prologHeader = processProlog
-							? new StringBuilder()
-							: null;
-						Document      documentBase = Dom4JUtils
-							.readDocument(
-								basefile.toURI().toURL(),
-								prologHeader
-							);
-						Document      result       = xmlMerger
-							.mergeXml(documentBase, loadXml(fileToMerge));
-
-						writeMergedXml(outputFile, result, prologHeader);
-
-						if (removeMergeDocumentAfterProcessing)
-						{
-							boolean fileDeleted = fileToMerge.delete();
-							if (!fileDeleted)
-								getLog()
-									.warn(
-										"Unable to delete file :"
-											+ fileToMerge.getAbsolutePath()
-									);
-						}
+			try
+			{
+				saveBuildState();
+			}
+			catch (IOException e)
+			{
+				getLog().warn("Unable to save build state", e);
+			}
+
+			reportStats("mergexml");
+		}
+
+	}
+
+	/**
+	 * Determines what to merge into what. Skips files without base file and
+	 * merges that are up to date.
+	 */
+	private List<XmlMergeJob> planMergeJobs(
+		List<File> xmlFiles,
+		Pattern regex
+	) throws MojoExecutionException, IOException
+	{
+		List<XmlMergeJob> jobs = new ArrayList<XmlMergeJob>();
 
+		for (File fileToMerge : xmlFiles)
+		{
+			Matcher matcher = regex.matcher(fileToMerge.getName());
+			if (matcher.matches() && matcher.groupCount() == 2)
+			{
+
+				String baseFileName = matcher.group(2);
+
+				File   basefile     = getBaseFile(fileToMerge, baseFileName);
+				File   outputFile   = getOutputFile(fileToMerge, baseFileName);
+
+				getLog().debug("Merge Base :" + basefile.getAbsolutePath());
+				getLog()
+					.debug("Merge Transform :" + fileToMerge.getAbsolutePath());
+				getLog().debug("Merge Output :" + outputFile.getAbsolutePath());
+
+				if (basefile.exists())
+				{
+					List<File> inputs = List.of(basefile, fileToMerge);
+					if (isUpToDate(outputFile, inputs))
+					{
+						getLog()
+							.info(
+								"Up to date, skipped :"
+									+ fileToMerge.getAbsolutePath()
+							);
+						continue;
 					}
-					else
+
+					List<FileFingerprint> inputFingerprints = fingerprintInputs(
+						inputs
+					);
+					if (restoreFromCache(
+						getCacheKey(inputFingerprints),
+						outputFile
+					))
 					{
 						getLog()
-							.warn(
-								"No filebase found for "
+							.info(
+								"Copied from merge cache :"
 									+ fileToMerge.getAbsolutePath()
 							);
+						recordMerge(outputFile, inputFingerprints);
+						removeMergeDocument(fileToMerge);
+						continue;
 					}
 
+					jobs
+						.add(
+							new XmlMergeJob(
+								fileToMerge,
+								basefile,
+								outputFile,
+								inputFingerprints
+							)
+						);
 				}
 				else
 				{
-					throw new MojoExecutionException(
-						"The file do not matches regex"
-					);
-
+					getLog()
+						.warn(
+							"No filebase found for "
+								+ fileToMerge.getAbsolutePath()
+						);
 				}
+
+			}
+			else
+			{
+				throw new MojoExecutionException(
+					"The file do not matches regex"
+				);
+
 			}
 		}
-		catch (Exception e)
+
+		return jobs;
+	}
+
+
+	private void removeMergeDocument(File fileToMerge)
+	{
+		if (removeMergeDocumentAfterProcessing)
 		{
-			throw new MojoExecutionException("Unable to merge xml", e);
+			boolean fileDeleted = fileToMerge.delete();
+			if (!fileDeleted)
+				getLog()
+					.warn(
+						"Unable to delete file :"
+							+ fileToMerge.getAbsolutePath()
+					);
 		}
-
 	}
 }
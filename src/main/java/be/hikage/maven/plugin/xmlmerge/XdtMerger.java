@@ -16,11 +16,19 @@
 
 package be.hikage.maven.plugin.xmlmerge;
 
-import be.hikage.xdt4j.XdtTransformer;
+import be.hikage.xdt4j.XdtConstants;
+import be.hikage.xdt4j.transform.Transform;
+import be.hikage.xdt4j.transform.XdtTransformFactory;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.dom4j.XPath;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.logging.Logger;
 
 @Component(role = XmlMerger.class)
@@ -31,9 +39,59 @@ public class XdtMerger implements XmlMerger {
 
     public Document mergeXml(Document documentBase, Document mergeData) {
 
-        XdtTransformer transformer = new XdtTransformer();
+        return mergeInto((Document) documentBase.clone(), mergeData);
 
-        return transformer.transform(documentBase, mergeData);
+    }
+
+    /**
+     * Same as {@link be.hikage.xdt4j.XdtTransformer#transform(Document, Document)},
+     * but applies the transforms to documentBase itself instead of a clone.
+     */
+    @Override
+    public Document mergeInto(Document documentBase, Document mergeData) {
+
+        return applyTransforms(createTransformSelector(), documentBase, mergeData);
+
+    }
+
+    /**
+     * Compiles the transform selector once and applies the transforms of every
+     * mergeData to the same documentBase.
+     */
+    @Override
+    public Document mergeAllInto(Document documentBase, Iterable<Document> mergeDataList) {
+
+        XPath transformSelector = createTransformSelector();
+
+        for (Document mergeData : mergeDataList) {
+            applyTransforms(transformSelector, documentBase, mergeData);
+        }
+
+        return documentBase;
+
+    }
+
+    private static XPath createTransformSelector() {
+
+        XPath transformSelector = DocumentHelper.createXPath("//*[@xdt:Transform]");
+        transformSelector.setNamespaceURIs(Collections.singletonMap("xdt", XdtConstants.XDT_NAMESPACE));
+
+        return transformSelector;
+
+    }
+
+    private static Document applyTransforms(XPath transformSelector, Document documentBase, Document mergeData) {
+
+        List<Transform> transforms = new ArrayList<Transform>();
+        for (Object transformElement : transformSelector.selectNodes(mergeData)) {
+            transforms.add(XdtTransformFactory.createTransform((Element) transformElement, documentBase));
+        }
+
+        for (Transform transform : transforms) {
+            transform.apply();
+        }
+
+        return documentBase;
 
     }
 }
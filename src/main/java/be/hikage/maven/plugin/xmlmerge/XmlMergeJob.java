@@ -1,11 +1,49 @@
 package be.hikage.maven.plugin.xmlmerge;
 
+import engineering.schumann.maven.plugin.xmlmerge.incremental.FileFingerprint;
+
+import java.io.File;
+import java.util.List;
+
 /**
- * Created by IntelliJ IDEA.
- * User: hikage
- * Date: 16/01/12
- * Time: 12:41
- * To change this template use File | Settings | File Templates.
+ * One merge of the mergexml goal: a file to merge, the base file it is merged
+ * into and the file the result is written to.
  */
 public class XmlMergeJob {
+
+    private final File fileToMerge;
+
+    private final File baseFile;
+
+    private final File outputFile;
+
+    private final List<FileFingerprint> inputFingerprints;
+
+    /**
+     * @param inputFingerprints fingerprints of the base file and the file to
+     *                          merge, taken before merging. null if neither
+     *                          incremental nor cached.
+     */
+    public XmlMergeJob(File fileToMerge, File baseFile, File outputFile, List<FileFingerprint> inputFingerprints) {
+        this.fileToMerge = fileToMerge;
+        this.baseFile = baseFile;
+        this.outputFile = outputFile;
+        this.inputFingerprints = inputFingerprints;
+    }
+
+    public File getFileToMerge() {
+        return fileToMerge;
+    }
+
+    public File getBaseFile() {
+        return baseFile;
+    }
+
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    public List<FileFingerprint> getInputFingerprints() {
+        return inputFingerprints;
+    }
 }
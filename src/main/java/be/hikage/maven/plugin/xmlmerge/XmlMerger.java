@@ -32,4 +32,40 @@ public interface XmlMerger {
      * @return The XML document resulting from the merger
      */
     Document mergeXml(Document documentBase, Document mergeData);
+
+    /**
+     * Merge two XML Document, taking ownership of both of them.
+     * <p>
+     * Unlike {@link #mergeXml(Document, Document)}, implementations are allowed
+     * to alter the documentBase and to move nodes out of the mergeData instead
+     * of copying them. Callers must not use either document afterwards, except
+     * through the returned one.
+     *
+     * @param documentBase The basic XML document that will be altered
+     * @param mergeData    The XML document that contains instructions to be merged
+     * @return The XML document resulting from the merger, usually documentBase
+     */
+    default Document mergeInto(Document documentBase, Document mergeData) {
+        return mergeXml(documentBase, mergeData);
+    }
+
+    /**
+     * Merge any number of XML Document into one, in the given order, taking
+     * ownership of all of them like {@link #mergeInto(Document, Document)}.
+     * <p>
+     * Implementations should prepare whatever they need once and share it
+     * across the whole batch. The mergeData is iterated exactly once, so it may
+     * load the documents lazily.
+     *
+     * @param documentBase  The basic XML document that will be altered
+     * @param mergeDataList The XML documents that contain instructions to be merged
+     * @return The XML document resulting from the merger, usually documentBase
+     */
+    default Document mergeAllInto(Document documentBase, Iterable<Document> mergeDataList) {
+        Document result = documentBase;
+        for (Document mergeData : mergeDataList) {
+            result = mergeInto(result, mergeData);
+        }
+        return result;
+    }
 }
@@ -1,63 +1,214 @@
 package be.hikage.maven.plugin.xmlmerge.utils;
 
 
-import org.apache.commons.io.IOUtils;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
-import org.dom4j.io.SAXReader;
+
+import engineering.schumann.maven.plugin.xmlmerge.io.XmlReaderFactory;
 
 import java.io.*;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
 
 
 public abstract class Dom4JUtils
 {
+	private static final int     BUFFER_SIZE     = 64 * 1024;
+
+	/** longest indentation of the line the XML starts at */
+	private static final int     MAX_INDENT      = 256;
+
+	/** longest XML declaration looked at for the encoding */
+	private static final int     MAX_DECLARATION = 256;
+
+	private static final Pattern ENCODING        = Pattern
+		.compile(
+			"^<\\?xml\\s[^>]*encoding\\s*=\\s*[\"']([A-Za-z][A-Za-z0-9._-]*)[\"']"
+		);
+
 
 	public static Document readDocument(
 		URL file,
 		StringBuilder prologBuffer
 	) throws DocumentException, IOException
 	{
-		try
+		return readDocument(file, prologBuffer, XmlReaderFactory.DEFAULT);
+	}
+
+
+	/**
+	 * @param file
+	 * @param prologBuffer
+	 *            receives the text in front of the XML, e.g. a license header.
+	 *            null if there must not be any.
+	 * @param readerFactory
+	 * @return
+	 * @throws DocumentException
+	 * @throws IOException
+	 */
+	public static Document readDocument(
+		URL file,
+		StringBuilder prologBuffer,
+		XmlReaderFactory readerFactory
+	) throws DocumentException, IOException
+	{
+		try (InputStream input = new BufferedInputStream(
+			file.openStream(),
+			BUFFER_SIZE
+		))
 		{
+			if (prologBuffer != null)
+				// NOTE: the XML starts at the first line starting with <
+				prologBuffer.append(readProlog(input).trim());
 
-			SAXReader reader = new SAXReader();
-			return reader.read(file.openStream());
+			return readerFactory.read(input, file.toString());
 		}
-		catch (DocumentException e)
+	}
+
+
+	public static Document readDocument(
+		URL stream
+	) throws DocumentException, IOException
+	{
+		return readDocument(stream, null);
+	}
+
+
+	/**
+	 * Reads everything in front of the first line starting with <, ignoring
+	 * indentation. Leaves the stream at that <, so the XML can be parsed from
+	 * it without reading the file again.
+	 *
+	 * NOTE: only works for encodings where < is a single byte. A UTF-8 byte
+	 * order mark is skipped. Documents starting with a UTF-16 or UTF-32 byte
+	 * order mark, or with a < of two bytes, have no prolog and are left to the
+	 * parser as they are.
+	 *
+	 * The prolog is decoded with the encoding the XML declares, UTF-8 if it
+	 * declares none.
+	 *
+	 * @param input
+	 *            must support mark
+	 * @return the prolog, empty if the XML starts right away
+	 * @throws IOException
+	 */
+	private static String readProlog(
+		InputStream input
+	) throws IOException
+	{
+		if (!skipUtf8ByteOrderMark(input))
+			// === SUCCESS (no prolog) ===
+			return "";
+
+		ByteArrayOutputStream prolog = new ByteArrayOutputStream();
+		while (true)
 		{
-			// FIXME this is bad
-			if (e.getMessage().contains("Content is not allowed in prolog")
-				&& prologBuffer != null)
+			// === LINE START ===
+			input.mark(MAX_INDENT + 1);
+
+			ByteArrayOutputStream indentation = new ByteArrayOutputStream();
+			int                   indent      = 0;
+			int                   b           = input.read();
+			while ((b == ' ' || b == '\t') && indent < MAX_INDENT)
+			{
+				indentation.write(b);
+				indent++;
+				b = input.read();
+			}
+
+			if (b == '<')
 			{
+				// === SUCCESS ===
+				input.reset();
+				input.skip(indent);
+				break;
+			}
 
-				String xmlText           = IOUtils.toString(file.openStream());
-				// FIXME this doesn't work: < might be part of the prolog. Look
-				// for first line starting with < instead
-				int    firstXmlCharIndex = xmlText.indexOf("<");
-				if (firstXmlCharIndex == -1)
-					throw e;
-				
-				prologBuffer
-					.append(xmlText.substring(0, firstXmlCharIndex - 1).trim());
-				
-				SAXReader reader = new SAXReader();
-				return reader
-					.read(
-						new StringReader(xmlText.substring(firstXmlCharIndex))
-					);
+			// === PROLOG LINE ===
+			// NOTE: the indentation is part of the prolog
+			indentation.writeTo(prolog);
+			while (b != -1 && b != '\n')
+			{
+				prolog.write(b);
+				b = input.read();
 			}
-			else
-				throw e;
+			if (b == -1)
+				// === SUCCESS (no XML, left to the parser to fail) ===
+				break;
+			prolog.write(b);
 		}
 
+		return prolog.toString(declaredEncoding(input));
 	}
 
 
-	public static Document readDocument(
-		URL stream
-	) throws DocumentException, IOException
+	/**
+	 * Looks at the first bytes of the input and skips a UTF-8 byte order mark.
+	 *
+	 * @param input
+	 *            must support mark
+	 * @return false, if the input is in a multi-byte encoding like UTF-16,
+	 *         i.e. no prolog can be told apart. The input is left as it is.
+	 * @throws IOException
+	 */
+	private static boolean skipUtf8ByteOrderMark(
+		InputStream input
+	) throws IOException
 	{
-		return readDocument(stream, null);
+		input.mark(4);
+		byte[] head   = new byte[4];
+		int    length = input.readNBytes(head, 0, head.length);
+		input.reset();
+
+		if (length >= 3
+			&& (head[0] & 0xFF) == 0xEF
+			&& (head[1] & 0xFF) == 0xBB
+			&& (head[2] & 0xFF) == 0xBF)
+		{
+			// NOTE: the parser does not need it, UTF-8 is the default
+			input.skip(3);
+
+			// === SUCCESS ===
+			return true;
+		}
+
+		if (length >= 2
+			&& (head[0] == 0 || head[1] == 0
+				|| (head[0] & 0xFF) == 0xFE && (head[1] & 0xFF) == 0xFF
+				|| (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xFE))
+			// === SUCCESS (UTF-16, UTF-32) ===
+			return false;
+
+		// === SUCCESS ===
+		return true;
+	}
+
+
+	/**
+	 * @param input
+	 *            at the start of the XML, must support mark. Left there.
+	 * @return the encoding of the XML declaration, UTF-8 if there is none
+	 * @throws IOException
+	 */
+	private static Charset declaredEncoding(
+		InputStream input
+	) throws IOException
+	{
+		input.mark(MAX_DECLARATION);
+		byte[] head   = new byte[MAX_DECLARATION];
+		int    length = input.readNBytes(head, 0, head.length);
+		input.reset();
+
+		// NOTE: the declaration itself is ASCII
+		var matcher = ENCODING
+			.matcher(new String(head, 0, length, StandardCharsets.ISO_8859_1));
+		if (matcher.find() && Charset.isSupported(matcher.group(1)))
+			// === SUCCESS ===
+			return Charset.forName(matcher.group(1));
+
+		// === SUCCESS ===
+		return StandardCharsets.UTF_8;
 	}
 }
@@ -17,26 +17,47 @@
 package engineering.schumann.maven.plugin.xmlmerge;
 
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Collection;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
-import org.apache.commons.io.filefilter.RegexFileFilter;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.codehaus.plexus.util.StringUtils;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.io.OutputFormat;
-import org.dom4j.io.SAXReader;
 import org.dom4j.io.XMLWriter;
 
 import be.hikage.maven.plugin.xmlmerge.XmlMerger;
+import be.hikage.maven.plugin.xmlmerge.utils.Dom4JUtils;
 import be.hikage.maven.plugin.xmlmerge.utils.PathUtils;
+import engineering.schumann.maven.plugin.xmlmerge.incremental.BuildState;
+import engineering.schumann.maven.plugin.xmlmerge.incremental.FileFingerprint;
+import engineering.schumann.maven.plugin.xmlmerge.incremental.MergeCache;
+import engineering.schumann.maven.plugin.xmlmerge.jfr.ParseEvent;
+import engineering.schumann.maven.plugin.xmlmerge.jfr.SerializeEvent;
+import engineering.schumann.maven.plugin.xmlmerge.io.AtomicOutputFile;
+import engineering.schumann.maven.plugin.xmlmerge.io.DocumentCache;
+import engineering.schumann.maven.plugin.xmlmerge.io.OutputStyle;
+import engineering.schumann.maven.plugin.xmlmerge.io.ParserBackend;
+import engineering.schumann.maven.plugin.xmlmerge.io.XmlReaderFactory;
+import engineering.schumann.maven.plugin.xmlmerge.scan.IndexedXmlFileScanner;
+import engineering.schumann.maven.plugin.xmlmerge.scan.ParallelXmlFileScanner;
+import engineering.schumann.maven.plugin.xmlmerge.scan.XmlFileScanner;
+import engineering.schumann.maven.plugin.xmlmerge.stats.ExecutionStats;
+import engineering.schumann.maven.plugin.xmlmerge.stats.ExecutionStats.Phase;
 
 
 /**
@@ -114,6 +135,187 @@ public abstract class AbstractMergeXmlMojo
 	 */
 	protected String    mergeFilenamePattern;
 
+	/**
+	 * Ant-style patterns of the files to merge, relative to the input
+	 * directory, e.g. "spring/**&#47;*.xml". Files must match the
+	 * mergeFilenamePattern as well. All files are merged, if empty.
+	 *
+	 * @parameter
+	 */
+	protected String[]  globIncludes;
+
+	/**
+	 * Ant-style patterns of files and directories to skip, relative to the
+	 * input directory, e.g. "**&#47;target/**".
+	 *
+	 * @parameter
+	 */
+	protected String[]  globExcludes;
+
+	/**
+	 * Number of threads that parse the files to merge ahead of the merger. 0
+	 * uses one thread per available processor, 1 parses on the merging thread.
+	 *
+	 * @parameter default-value="1"
+	 * @required
+	 */
+	protected int       parseThreads;
+
+	/**
+	 * Maximum number of files parsed ahead of the merger. Bounds the number of
+	 * parsed documents waiting in memory.
+	 *
+	 * @parameter default-value="16"
+	 * @required
+	 */
+	protected int       parseReadAhead;
+
+	/**
+	 * Number of threads that walk the input directory, one directory at a time.
+	 * 0 uses one thread per available processor, 1 walks it on the merging
+	 * thread. Helps with very large trees on network file systems.
+	 *
+	 * NOTE: with more than one thread, files are merged in the order of their
+	 * paths, whatever order the file system lists them in.
+	 *
+	 * @parameter property="xmlmerger.scanThreads" default-value="1"
+	 * @required
+	 */
+	protected int       scanThreads;
+
+	/**
+	 * Flag to keep an index of the input directory in the state directory, so
+	 * that only directories changed since the last build are listed again.
+	 * Takes precedence over scanThreads.
+	 *
+	 * @parameter property="xmlmerger.scanIndex" default-value="false"
+	 * @required
+	 */
+	protected boolean   scanIndex;
+
+	/**
+	 * Flag to skip merges whose inputs and settings did not change since the
+	 * last build, as long as their output file is still untouched.
+	 *
+	 * @parameter default-value="true"
+	 * @required
+	 */
+	protected boolean   incremental;
+
+	/**
+	 * The directory in which the state of incremental builds is kept.
+	 *
+	 * @parameter default-value="${project.build.directory}/xmlmerger"
+	 * @required
+	 */
+	protected File      stateDirectory;
+
+	/**
+	 * The directory in which merged output files are cached across builds and
+	 * modules, e.g. "${settings.localRepository}/../xmlmerger-cache". Merges
+	 * whose settings and inputs have been merged before are copied from the
+	 * cache. Not cached, if not set.
+	 *
+	 * @parameter property="xmlmerger.cacheDirectory"
+	 */
+	protected File      cacheDirectory;
+
+	/**
+	 * Size limit in MB of the cache directory. After every execution, the
+	 * entries used least recently are deleted until the cache is below it. 0
+	 * for no limit.
+	 *
+	 * @parameter property="xmlmerger.cacheMaxSize" default-value="1024"
+	 * @required
+	 */
+	protected int       cacheMaxSize;
+
+	/**
+	 * OASIS XML catalog files used to resolve DTDs and other external entities
+	 * locally, e.g. the DTDs of Spring or web.xml 2.3.
+	 *
+	 * @parameter
+	 */
+	protected File[]    catalogs;
+
+	/**
+	 * Flag to load external DTDs and entities not found in a catalog. If
+	 * false, they are replaced by an empty document and nothing is ever
+	 * fetched over the network. Loaded entities are kept for the whole build.
+	 *
+	 * @parameter property="xmlmerger.loadExternalDtds" default-value="true"
+	 * @required
+	 */
+	protected boolean   loadExternalDtds;
+
+	/**
+	 * The parser used to read documents: "sax" (the SAX parser found on the
+	 * plugin class path), "jdk-sax" (the SAX parser of the JDK), "stax" (the
+	 * StAX parser of the JDK) or "woodstox" (a high-throughput StAX parser).
+	 *
+	 * @parameter property="xmlmerger.parserBackend" default-value="sax"
+	 * @required
+	 */
+	protected String    parserBackend;
+
+	/**
+	 * How merged documents are written: "pretty" (re-indented), "compact" (no
+	 * whitespace between elements) or "preserve" (text and whitespace as
+	 * parsed, the fastest). Streamed merges are always written as parsed.
+	 *
+	 * @parameter property="xmlmerger.outputFormat" default-value="pretty"
+	 * @required
+	 */
+	protected String    outputFormat;
+
+	/**
+	 * The encoding of merged documents, including their prolog.
+	 *
+	 * @parameter property="xmlmerger.outputEncoding" default-value="UTF-8"
+	 * @required
+	 */
+	protected String    outputEncoding;
+
+	/**
+	 * Memory budget in MB for base documents kept parsed across executions
+	 * within a build, e.g. when many modules merge into the same base file. 0
+	 * disables the cache.
+	 *
+	 * @parameter property="xmlmerger.documentCacheSize" default-value="128"
+	 * @required
+	 */
+	protected int       documentCacheSize;
+
+	/**
+	 * The build session, caches are shared within.
+	 *
+	 * @parameter default-value="${session}"
+	 * @readonly
+	 */
+	protected MavenSession session;
+
+	/**
+	 * The state of incremental builds. null if not building incrementally.
+	 */
+	protected BuildState buildState;
+
+	/**
+	 * The cache of merged output files. null if there is none.
+	 */
+	protected MergeCache mergeCache;
+
+	private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+
+	private ExecutorService f_parseExecutor;
+
+	private XmlReaderFactory f_readerFactory;
+
+	private XmlReaderFactory f_prologReaderFactory;
+
+	private ExecutionStats   f_stats;
+
+	private DocumentCache    f_documentCache;
+
 
 	public abstract void execute() throws MojoExecutionException;
 
@@ -158,14 +360,108 @@ public abstract class AbstractMergeXmlMojo
 		List<File> xmlFiles
 	)
 	{
+		try
+		{
+			scanXmlToMerge(fileToProcess, xmlFiles::add);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
 
-		RegexFileFilter  filter2    = new RegexFileFilter(mergeFilenamePattern);
 
-		Collection<File> filesFound = FileUtils
-			.listFiles(fileToProcess, filter2, DirectoryFileFilter.DIRECTORY);
+	/**
+	 * Hands every file to merge to the consumer, as soon as it is found.
+	 *
+	 * @param searchDirectory
+	 * @param consumer
+	 * @throws IOException
+	 */
+	protected void scanXmlToMerge(
+		File searchDirectory,
+		Consumer<File> consumer
+	) throws IOException
+	{
+		var scanner = createScanner();
+		var started = System.nanoTime();
+		scanner
+			.scan(searchDirectory.toPath(), file -> consumer.accept(file.toFile()));
+		// NOTE: includes the time the consumer took, e.g. to group files
+		getStats().add(null, Phase.SCAN, System.nanoTime() - started);
+
+		if (scanner instanceof IndexedXmlFileScanner)
+			getLog()
+				.info(
+					"Scan index: %d directories listed, %d unchanged"
+						.formatted(
+							((IndexedXmlFileScanner) scanner).getListed(),
+							((IndexedXmlFileScanner) scanner).getUnchanged()
+						)
+				);
+	}
 
-		xmlFiles.addAll(filesFound);
 
+	/**
+	 * @return the scanner finding the files to merge
+	 */
+	protected XmlFileScanner createScanner()
+	{
+		return createScanner(List.of());
+	}
+
+
+	/**
+	 * @param excludes
+	 *            patterns of file names and directory paths to skip
+	 * @return the scanner finding the files to merge
+	 */
+	protected XmlFileScanner createScanner(
+		List<String> excludes
+	)
+	{
+		var includes = globIncludes != null
+			? List.of(globIncludes)
+			: List.<String>of();
+		var skipped  = globExcludes != null
+			? List.of(globExcludes)
+			: List.<String>of();
+
+		if (scanIndex)
+			// === SUCCESS ===
+			return new IndexedXmlFileScanner(
+				mergeFilenamePattern,
+				excludes,
+				includes,
+				skipped,
+				new File(
+					stateDirectory,
+					"%s-%08x.scanindex"
+						.formatted(
+							getClass().getSimpleName(),
+							inputDirectory.getAbsolutePath().hashCode()
+						)
+				)
+			);
+
+		if (scanThreads == 1)
+			// === SUCCESS (walk on merging thread) ===
+			return new XmlFileScanner(
+				mergeFilenamePattern,
+				excludes,
+				includes,
+				skipped
+			);
+
+		return new ParallelXmlFileScanner(
+			mergeFilenamePattern,
+			excludes,
+			includes,
+			skipped,
+			scanThreads > 0
+				? scanThreads
+				: Runtime.getRuntime().availableProcessors()
+		);
 	}
 
 
@@ -173,11 +469,533 @@ public abstract class AbstractMergeXmlMojo
 		File baseFile
 	) throws DocumentException
 	{
-		SAXReader reader = new SAXReader();		
-		
-		reader.setIgnoreComments(ignoreComments);
-		
-		return reader.read(baseFile);
+		var event    = new ParseEvent();
+		event.begin();
+		var started  = System.nanoTime();
+		var document = getReaderFactory().read(baseFile);
+		getStats().addParsed(baseFile, System.nanoTime() - started);
+		event.finish(baseFile, getStats(), getMergeMode(), baseFile::length);
+
+		return document;
+	}
+
+
+	/**
+	 * @return the readers used to parse all documents of this execution
+	 */
+	protected synchronized XmlReaderFactory getReaderFactory()
+	{
+		if (f_readerFactory == null)
+			f_readerFactory = createReaderFactory();
+
+		return f_readerFactory;
+	}
+
+
+	/**
+	 * @return the readers used to parse base documents with their prolog.
+	 *         These always read comments.
+	 */
+	protected synchronized XmlReaderFactory getPrologReaderFactory()
+	{
+		// NOTE: shares the entities loaded with the readers of this execution
+		if (f_prologReaderFactory == null)
+			f_prologReaderFactory = getReaderFactory().withIgnoreComments(false);
+
+		return f_prologReaderFactory;
+	}
+
+
+	private XmlReaderFactory createReaderFactory()
+	{
+		return new XmlReaderFactory(
+			ignoreComments,
+			catalogs != null
+				? List.of(catalogs)
+				: List.of(),
+			loadExternalDtds,
+			ParserBackend.forName(parserBackend)
+		);
+	}
+
+
+	/**
+	 * @return the configured parser backend
+	 * @throws MojoExecutionException
+	 *             if there is no such backend
+	 */
+	protected ParserBackend getParserBackend() throws MojoExecutionException
+	{
+		try
+		{
+			return ParserBackend.forName(parserBackend);
+		}
+		catch (IllegalArgumentException e)
+		{
+			// === FAIL ===
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
+	}
+
+
+	/**
+	 * Loads a base document, from the document cache if it was parsed before
+	 * within this build.
+	 *
+	 * @param baseFile
+	 * @return a copy of the document, owned by the caller
+	 * @throws DocumentException
+	 * @throws IOException
+	 */
+	protected Document loadBaseXml(
+		File baseFile
+	) throws DocumentException, IOException
+	{
+		return getDocumentCache()
+			.load(
+				baseFile,
+				getReaderFactory().getConfiguration(),
+				null,
+				(file, prologBuffer) -> loadXml(file)
+			);
+	}
+
+
+	/**
+	 * Loads a base document, including its prolog, from the document cache if
+	 * it was parsed before within this build.
+	 *
+	 * @param baseFile
+	 * @param prologBuffer
+	 *            receives the prolog. null if the prolog is not processed.
+	 * @return the document, shared with other executions. MUST NOT be changed,
+	 *         e.g. merge with {@link XmlMerger#mergeXml(Document, Document)}.
+	 * @throws DocumentException
+	 * @throws IOException
+	 */
+	protected Document readSharedBaseDocument(
+		File baseFile,
+		StringBuilder prologBuffer
+	) throws DocumentException, IOException
+	{
+		return getDocumentCache()
+			.loadShared(
+				baseFile,
+				"readDocument;" + getPrologReaderFactory().getConfiguration(),
+				prologBuffer,
+				(file, buffer) -> {
+					var event    = new ParseEvent();
+					event.begin();
+					var started  = System.nanoTime();
+					var document = Dom4JUtils
+						.readDocument(
+							file.toURI().toURL(),
+							buffer,
+							getPrologReaderFactory()
+						);
+					getStats().addParsed(file, System.nanoTime() - started);
+					event.finish(file, getStats(), getMergeMode(), file::length);
+
+					return document;
+				}
+			);
+	}
+
+
+	/**
+	 * @return the document cache of the build session
+	 */
+	synchronized DocumentCache getDocumentCache()
+	{
+		// NOTE: the clones of the session in a parallel build share the
+		// request
+		if (f_documentCache == null)
+			f_documentCache = DocumentCache
+				.forSession(session != null ? session.getRequest() : null);
+		// NOTE: the cache is shared, the last execution sets the budget
+		f_documentCache.setMaxBytes(documentCacheSize * 1024L * 1024L);
+
+		return f_documentCache;
+	}
+
+
+	/**
+	 * Loads the given files while they are iterated, in order. Uses the parse
+	 * threads if there are any.
+	 *
+	 * @param files
+	 * @return documents of the files. Must be closed.
+	 */
+	protected DocumentSequence loadXml(
+		List<File> files
+	)
+	{
+		var executor = getParseExecutor();
+		if (executor == null)
+			// === SUCCESS ===
+			return new DocumentSequence(files, this::loadXml);
+
+		// === SUCCESS ===
+		return new DocumentSequence(
+			files,
+			this::loadXml,
+			executor,
+			parseReadAhead
+		);
+	}
+
+
+	private synchronized ExecutorService getParseExecutor()
+	{
+		if (parseThreads == 1)
+			// === SUCCESS (parse on merging thread) ===
+			return null;
+
+		if (f_parseExecutor == null)
+		{
+			var threads = parseThreads > 0
+				? parseThreads
+				: Runtime.getRuntime().availableProcessors();
+
+			f_parseExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+				var thread = new Thread(runnable, "xmlmerger-parse");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		return f_parseExecutor;
+	}
+
+
+	/**
+	 * Stops the parse threads. Call at the end of the execution.
+	 */
+	protected synchronized void shutdownParseExecutor()
+	{
+		if (f_parseExecutor != null)
+			f_parseExecutor.shutdownNow();
+		f_parseExecutor = null;
+	}
+
+
+	/**
+	 * Loads the state of the last build, if building incrementally. The state
+	 * file is specific to the goal and its directories, so several executions
+	 * do not share it. Opens the merge cache, if there is one.
+	 *
+	 * @throws IOException
+	 */
+	protected void loadBuildState() throws IOException
+	{
+		if (cacheDirectory != null)
+			mergeCache = new MergeCache(
+				cacheDirectory,
+				cacheMaxSize * 1024L * 1024L
+			);
+
+		if (!incremental)
+			// === SUCCESS (nothing to do) ===
+			return;
+
+		buildState = BuildState.load(getStateFile(".state"));
+	}
+
+
+	/**
+	 * @param extension
+	 * @return a file in the state directory, specific to the goal and its
+	 *         directories
+	 */
+	private File getStateFile(
+		String extension
+	)
+	{
+		var directories = String
+			.join(
+				"|",
+				inputDirectory.getAbsolutePath(),
+				baseDirectory.getAbsolutePath(),
+				outputDirectory.getAbsolutePath()
+			);
+
+		return new File(
+			stateDirectory,
+			"%s-%08x%s"
+				.formatted(
+					getClass().getSimpleName(),
+					directories.hashCode(),
+					extension
+				)
+		);
+	}
+
+
+	/**
+	 * @return the merge mode, as recorded in flight recorder events
+	 */
+	protected String getMergeMode()
+	{
+		return xmlMerger != null
+			? xmlMerger.getClass().getSimpleName()
+			: "";
+	}
+
+
+	/**
+	 * @return the timings and counters of this execution
+	 */
+	protected synchronized ExecutionStats getStats()
+	{
+		if (f_stats == null)
+			f_stats = new ExecutionStats();
+
+		return f_stats;
+	}
+
+
+	/**
+	 * Logs a summary of the timings and writes all of them to a JSON report in
+	 * the state directory. Call at the end of the execution.
+	 *
+	 * @param goal
+	 */
+	protected void reportStats(
+		String goal
+	)
+	{
+		var stats = getStats();
+		stats.log(getLog());
+
+		var reportFile = getStateFile("-stats.json");
+		try
+		{
+			stats.writeReport(reportFile, goal);
+
+			getLog().info("Timing report: " + reportFile.getAbsolutePath());
+		}
+		catch (IOException e)
+		{
+			getLog().warn("Unable to write timing report", e);
+		}
+	}
+
+
+	/**
+	 * Saves the state of this build, if building incrementally, and trims the
+	 * merge cache, if there is one.
+	 *
+	 * @throws IOException
+	 */
+	protected void saveBuildState() throws IOException
+	{
+		if (buildState != null)
+			buildState.save();
+
+		if (mergeCache != null)
+		{
+			var deleted = mergeCache.trim();
+			if (deleted > 0)
+				getLog()
+					.info(
+						"Merge cache: %d entries deleted, over %d MB"
+							.formatted(deleted, cacheMaxSize)
+					);
+		}
+	}
+
+
+	/**
+	 * The settings that influence the content of an output file, given its
+	 * inputs. Part of the key of the merge cache.
+	 *
+	 * @return
+	 */
+	protected String getContentSettings()
+	{
+		return String
+			.join(
+				";",
+				"processProlog=" + processProlog,
+				getReaderFactory().getConfiguration(),
+				"outputFormat=" + outputFormat,
+				"outputEncoding=" + outputEncoding,
+				"xmlMerger=" + xmlMerger.getClass().getName()
+			);
+	}
+
+
+	/**
+	 * The settings that influence the content of an output file, plus those
+	 * choosing the files merged. A change invalidates all outputs of the last
+	 * build.
+	 *
+	 * @return
+	 */
+	protected String getEffectiveSettings()
+	{
+		return String
+			.join(
+				";",
+				getContentSettings(),
+				"mergeFilenamePattern=" + mergeFilenamePattern,
+				"globIncludes="
+					+ (globIncludes != null ? String.join(",", globIncludes) : ""),
+				"globExcludes="
+					+ (globExcludes != null ? String.join(",", globExcludes) : "")
+			);
+	}
+
+
+	/**
+	 * @param outputFile
+	 * @param inputs
+	 *            the files merged into the output file, in order
+	 * @return true, if building incrementally and merging the inputs would
+	 *         produce what is already in the output file
+	 * @throws IOException
+	 */
+	protected boolean isUpToDate(
+		File outputFile,
+		List<File> inputs
+	) throws IOException
+	{
+		if (buildState == null)
+			// === SUCCESS (not incremental) ===
+			return false;
+
+		// === SUCCESS ===
+		return buildState.isUpToDate(outputFile, getEffectiveSettings(), inputs);
+	}
+
+
+	/**
+	 * @param inputs
+	 * @return the fingerprints of the inputs, null if not building
+	 *         incrementally. Must be taken before merging.
+	 * @throws IOException
+	 */
+	protected List<FileFingerprint> fingerprintInputs(
+		List<File> inputs
+	) throws IOException
+	{
+		if (buildState != null)
+			// === SUCCESS ===
+			return buildState.fingerprint(inputs);
+
+		if (mergeCache == null)
+			// === SUCCESS (not needed) ===
+			return null;
+
+		var fingerprints = new ArrayList<FileFingerprint>(inputs.size());
+		for (var input : inputs)
+			fingerprints.add(FileFingerprint.of(input));
+
+		// === SUCCESS ===
+		return fingerprints;
+	}
+
+
+	/**
+	 * @param inputFingerprints
+	 *            as returned by {@link #fingerprintInputs(List)}
+	 * @return the key of the merge in the cache, null if there is no cache
+	 */
+	protected String getCacheKey(
+		List<FileFingerprint> inputFingerprints
+	)
+	{
+		if (mergeCache == null)
+			// === SUCCESS (no cache) ===
+			return null;
+
+		// === SUCCESS ===
+		// NOTE: not the effective settings. how the inputs were found does not
+		// matter, so other modules can hit the same entries.
+		return mergeCache.key(getContentSettings(), inputFingerprints);
+	}
+
+
+	/**
+	 * @param cacheKey
+	 *            as returned by {@link #getCacheKey(List)}
+	 * @param outputFile
+	 * @return true, if the output file has been copied from the cache
+	 */
+	protected boolean restoreFromCache(
+		String cacheKey,
+		File outputFile
+	)
+	{
+		if (cacheKey == null)
+			// === SUCCESS (no cache) ===
+			return false;
+
+		try
+		{
+			// === SUCCESS ===
+			return mergeCache.restore(cacheKey, outputFile);
+		}
+		catch (IOException e)
+		{
+			// NOTE: the cache is an optimization only. merge instead.
+			getLog().warn("Unable to restore from merge cache", e);
+
+			// === SUCCESS (miss) ===
+			return false;
+		}
+	}
+
+
+	/**
+	 * @param cacheKey
+	 *            as returned by {@link #getCacheKey(List)}
+	 * @param outputFile
+	 */
+	protected void storeInCache(
+		String cacheKey,
+		File outputFile
+	)
+	{
+		if (cacheKey == null)
+			// === SUCCESS (no cache) ===
+			return;
+
+		try
+		{
+			mergeCache.store(cacheKey, outputFile);
+		}
+		catch (IOException e)
+		{
+			// NOTE: the cache is an optimization only
+			getLog().warn("Unable to store in merge cache", e);
+		}
+	}
+
+
+	/**
+	 * Records the result of a merge for the next build.
+	 *
+	 * @param outputFile
+	 * @param inputFingerprints
+	 *            as returned by {@link #fingerprintInputs(List)}. null, if the
+	 *            merge failed.
+	 * @throws IOException
+	 */
+	protected void recordMerge(
+		File outputFile,
+		List<FileFingerprint> inputFingerprints
+	) throws IOException
+	{
+		if (buildState == null)
+			// === SUCCESS (not incremental) ===
+			return;
+
+		if (inputFingerprints == null)
+			buildState.forget(outputFile);
+		else
+			buildState
+				.record(outputFile, getEffectiveSettings(), inputFingerprints);
 	}
 
 
@@ -196,21 +1014,89 @@ public abstract class AbstractMergeXmlMojo
 		StringBuilder prologHeader
 	) throws IOException
 	{
-		FileOutputStream fos = new FileOutputStream(baseFile);
+		OutputFormat format = createOutputFormat();
+		format.setSuppressDeclaration(true);
+		format.setNewLineAfterDeclaration(false);
 
-		if (processProlog && prologHeader != null
-			&& StringUtils.isNotEmpty(prologHeader.toString()))
+		try (var output = new AtomicOutputFile(baseFile))
 		{
-			fos.write(prologHeader.toString().getBytes());
+			var event   = new SerializeEvent();
+			event.begin();
+			var started = System.nanoTime();
+			var out     = createOutputWriter(output.getOutputStream());
+
+			if (processProlog && prologHeader != null
+				&& StringUtils.isNotEmpty(prologHeader.toString()))
+			{
+				out.write(prologHeader.toString());
+				// NOTE: the XML must start on a line of its own, to be told
+				// apart from the prolog when read again
+				if (!format.isNewlines())
+					out.write(format.getLineSeparator());
+			}
+
+			XMLWriter writer = new XMLWriter(out, format);
+			writer.write(base);
+			writer.flush();
+			writer.close();
+
+			var serialized = System.nanoTime();
+			getStats().add(baseFile, Phase.SERIALIZE, serialized - started);
+			event
+				.finish(baseFile, getStats(), getMergeMode(), output::getByteCount);
+
+			if (output.commit())
+				getStats().addWritten(baseFile, output.getByteCount());
+			else
+				getLog()
+					.debug("Unchanged, not written :" + baseFile.getAbsolutePath());
+			getStats().add(baseFile, Phase.WRITE, System.nanoTime() - serialized);
 		}
+	}
 
-		OutputFormat format = OutputFormat.createPrettyPrint();
-		format.setSuppressDeclaration(true);
-		format.setNewLineAfterDeclaration(false);
-		XMLWriter writer = new XMLWriter(fos, format);
-		writer.write(base);
-		writer.flush();
-		writer.close();
 
+	/**
+	 * @return the output format and encoding configured. Free to be changed.
+	 */
+	protected OutputFormat createOutputFormat()
+	{
+		return OutputStyle.forName(outputFormat).createFormat(outputEncoding);
+	}
+
+
+	/**
+	 * @param output
+	 * @return a writer encoding with the output encoding, buffered generously
+	 *         since merged documents tend to be large. Closes the output.
+	 */
+	protected Writer createOutputWriter(
+		OutputStream output
+	)
+	{
+		return new BufferedWriter(
+			new OutputStreamWriter(output, Charset.forName(outputEncoding)),
+			OUTPUT_BUFFER_SIZE
+		);
+	}
+
+
+	/**
+	 * @return the configured output style
+	 * @throws MojoExecutionException
+	 *             if there is no such style or encoding
+	 */
+	protected OutputStyle getOutputStyle() throws MojoExecutionException
+	{
+		try
+		{
+			Charset.forName(outputEncoding);
+
+			return OutputStyle.forName(outputFormat);
+		}
+		catch (IllegalArgumentException e)
+		{
+			// === FAIL ===
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
 	}
 }
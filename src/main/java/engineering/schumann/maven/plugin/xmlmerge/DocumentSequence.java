@@ -0,0 +1,251 @@
+package engineering.schumann.maven.plugin.xmlmerge;
+
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.dom4j.Document;
+
+
+/**
+ * The documents of a list of files, loaded one at a time while they are
+ * iterated. Lets a merger process a whole file group without holding all of
+ * its documents in memory.
+ * 
+ * With an executor, up to readAhead files are loaded concurrently ahead of the
+ * iteration. Documents are still returned in the order of the files.
+ * 
+ * Errors while loading are thrown as {@link XmlLoadException}.
+ */
+public class DocumentSequence
+	implements
+	Iterable<Document>,
+	AutoCloseable
+{
+	/*
+	 * ====================
+	 * 
+	 * NESTED CLASSIFIERS
+	 * 
+	 * ====================
+	 */
+	@FunctionalInterface
+	public interface Loader
+	{
+		Document load(
+			File file
+		) throws Exception;
+	}
+
+
+	/*
+	 * ====================
+	 * 
+	 * FIELDS
+	 * 
+	 * ====================
+	 */
+	protected final List<File>                    f_files;
+
+	protected final Loader                        f_loader;
+
+	protected final ExecutorService               f_executor;
+
+	protected final int                           f_readAhead;
+
+	/** documents being loaded ahead, in iteration order */
+	protected final ArrayDeque<Future<Document>> f_pending = new ArrayDeque<>();
+
+
+	/*
+	 * ====================
+	 * 
+	 * CONSTRUCTOR
+	 * 
+	 * ====================
+	 */
+	public DocumentSequence(
+		List<File> files,
+		Loader loader
+	)
+	{
+		this(files, loader, null, 0);
+	}
+
+
+	public DocumentSequence(
+		List<File> files,
+		Loader loader,
+		ExecutorService executor,
+		int readAhead
+	)
+	{
+		f_files     = files;
+		f_loader    = loader;
+		f_executor  = executor;
+		f_readAhead = Math.max(1, readAhead);
+	}
+
+
+	/*
+	 * ====================
+	 * 
+	 * METHODS (From Iterable)
+	 * 
+	 * ====================
+	 */
+	@Override
+	public Iterator<Document> iterator()
+	{
+		if (f_executor != null)
+			// === SUCCESS ===
+			return prefetchingIterator();
+
+		var files = f_files.iterator();
+
+		return new Iterator<Document>()
+		{
+			@Override
+			public boolean hasNext()
+			{
+				return files.hasNext();
+			}
+
+
+			@Override
+			public Document next()
+			{
+				if (!files.hasNext())
+					throw new NoSuchElementException();
+
+				return load(files.next());
+			}
+		};
+	}
+
+
+	/*
+	 * ====================
+	 * 
+	 * METHODS (From AutoCloseable)
+	 * 
+	 * ====================
+	 */
+	/**
+	 * Cancels the files still being loaded ahead, e.g. if the merger failed
+	 * before iterating all of them.
+	 */
+	@Override
+	public void close()
+	{
+		for (var future : f_pending)
+			future.cancel(true);
+		f_pending.clear();
+	}
+
+
+	/*
+	 * ====================
+	 * 
+	 * METHODS
+	 * 
+	 * ====================
+	 */
+	private Iterator<Document> prefetchingIterator()
+	{
+		var files = f_files.iterator();
+
+		return new Iterator<Document>()
+		{
+			@Override
+			public boolean hasNext()
+			{
+				fill();
+
+				return !f_pending.isEmpty();
+			}
+
+
+			@Override
+			public Document next()
+			{
+				fill();
+				if (f_pending.isEmpty())
+					throw new NoSuchElementException();
+
+				// NOTE: refilled once the document has been loaded, not while
+				// it is awaited, so it still counts towards the read-ahead
+				var document = await(f_pending.removeFirst());
+				fill();
+
+				return document;
+			}
+
+
+			private void fill()
+			{
+				while (f_pending.size() < f_readAhead && files.hasNext())
+				{
+					var file = files.next();
+					f_pending.addLast(f_executor.submit(() -> load(file)));
+				}
+			}
+		};
+	}
+
+
+	private static Document await(
+		Future<Document> future
+	)
+	{
+		try
+		{
+			// === SUCCESS ===
+			return future.get();
+		}
+		catch (ExecutionException e)
+		{
+			// NOTE: load() only throws XmlLoadException or unchecked ones
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+
+			// === FAIL ===
+			throw new IllegalStateException(e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+
+			// === FAIL ===
+			throw new IllegalStateException("Interrupted while loading", e);
+		}
+	}
+
+
+	protected Document load(
+		File file
+	)
+	{
+		try
+		{
+			// === SUCCESS ===
+			return f_loader.load(file);
+		}
+		catch (XmlLoadException e)
+		{
+			// === FAIL ===
+			throw e;
+		}
+		catch (Exception e)
+		{
+			// === FAIL ===
+			throw new XmlLoadException(file, e);
+		}
+	}
+}
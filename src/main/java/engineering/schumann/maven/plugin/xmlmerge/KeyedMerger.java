@@ -0,0 +1,360 @@
+package engineering.schumann.maven.plugin.xmlmerge;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.dom4j.Attribute;
+import org.dom4j.Document;
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+import org.dom4j.Node;
+import org.dom4j.QName;
+
+import be.hikage.maven.plugin.xmlmerge.XmlMerger;
+
+
+/**
+ * Merges elements by key instead of appending them blindly.
+ *
+ * The key of an element is its name plus the value of the first key attribute
+ * it has, e.g. {@code bean@id=dataSource}. Children of the base root are
+ * indexed by key once, so every child of a fragment root finds its counterpart
+ * in constant time:
+ * <ul>
+ * <li>no counterpart, or no key attribute: it is appended, like "simple" does
+ * <li>counterpart found: it replaces the counterpart, in place
+ * </ul>
+ *
+ * A fragment element may ask for another action with the attribute
+ * {@code action} of the namespace {@link #NAMESPACE}, which is removed from the
+ * result:
+ * <ul>
+ * <li>{@code replace}: the default
+ * <li>{@code merge}: its attributes are set on the counterpart and its child
+ * elements are merged into the counterpart's the same way, one level down
+ * <li>{@code append}: appended, even if there is a counterpart
+ * </ul>
+ */
+public class KeyedMerger
+	implements
+	XmlMerger
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	/** namespace of the attribute choosing the action of a fragment element */
+	public static final String NAMESPACE = "urn:xmlmerger:keyed";
+
+	private static final QName ACTION    = QName
+		.get("action", Namespace.get(NAMESPACE));
+
+	private static final Log   LOG       = new SystemStreamLog();
+
+
+	/*
+	 * ====================
+	 *
+	 * TYPES
+	 *
+	 * ====================
+	 */
+	private enum Action
+	{
+		REPLACE,
+		MERGE,
+		APPEND
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final List<String> f_keyAttributes;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param keyAttributes
+	 *            names of the attributes identifying an element, in order of
+	 *            precedence
+	 */
+	public KeyedMerger(
+		List<String> keyAttributes
+	)
+	{
+		f_keyAttributes = List.copyOf(keyAttributes);
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS (From XmlMerger)
+	 *
+	 * ====================
+	 */
+	@Override
+	public Document mergeXml(
+		Document inputDocument,
+		Document mergeData
+	)
+	{
+		// NOTE: elements of the merge data are moved, so both are cloned
+		return mergeInto(
+			(Document) inputDocument.clone(),
+			(Document) mergeData.clone()
+		);
+	}
+
+
+	@Override
+	public Document mergeInto(
+		Document inputDocument,
+		Document mergeData
+	)
+	{
+		return mergeAllInto(inputDocument, List.of(mergeData));
+	}
+
+
+	@Override
+	public Document mergeAllInto(
+		Document inputDocument,
+		Iterable<Document> mergeDataList
+	)
+	{
+		// === SETUP ===
+		// NOTE: indexed once for the whole batch, elements appended are added
+		// to the index, so later fragments find them
+		var targetRoot = inputDocument.getRootElement();
+		var index      = indexOf(targetRoot);
+		// NOTE: per call, the merger is shared by groups merged in parallel
+		var counts     = new int[Action.values().length];
+
+		// === BODY ===
+		for (var mergeData : mergeDataList)
+			mergeChildren(mergeData.getRootElement(), targetRoot, index, counts);
+
+		// @INFO
+		LOG
+			.info(
+				"merged %d elements: %d replaced, %d merged, %d appended"
+					.formatted(
+						counts[0] + counts[1] + counts[2],
+						counts[Action.REPLACE.ordinal()],
+						counts[Action.MERGE.ordinal()],
+						counts[Action.APPEND.ordinal()]
+					)
+			);
+
+		// === SUCCESS ===
+		return inputDocument;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * @return the key of the element, null if it has no key attribute
+	 */
+	String keyOf(
+		Element element
+	)
+	{
+		for (var keyAttribute : f_keyAttributes)
+		{
+			var value = element.attributeValue(keyAttribute);
+			if (value != null)
+				// === SUCCESS ===
+				return "{%s}%s@%s=%s"
+					.formatted(
+						element.getNamespaceURI(),
+						element.getName(),
+						keyAttribute,
+						value
+					);
+		}
+
+		// === SUCCESS (not keyed) ===
+		return null;
+	}
+
+
+	private Map<String, Element> indexOf(
+		Element parent
+	)
+	{
+		var index = new HashMap<String, Element>();
+		for (var childObj : parent.elements())
+		{
+			var child = (Element) childObj;
+			var key   = keyOf(child);
+			// NOTE: of duplicates in the base, the first one is the counterpart
+			if (key != null)
+				index.putIfAbsent(key, child);
+		}
+
+		return index;
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private void mergeChildren(
+		Element source,
+		Element target,
+		Map<String, Element> index,
+		int[] counts
+	)
+	{
+		// NOTE: copied, the elements are moved while iterating. dom4j 1.6
+		// hands out raw lists, hence unchecked.
+		for (var childObj : new ArrayList<>(source.elements()))
+		{
+			var child       = (Element) childObj;
+			var action      = takeAction(child);
+			var key         = keyOf(child);
+			var counterpart = key != null
+				? index.get(key)
+				: null;
+
+			if (counterpart == null)
+				action = Action.APPEND;
+
+			switch (action)
+			{
+				case APPEND:
+					target.add(child.detach());
+					if (key != null)
+						index.putIfAbsent(key, child);
+					break;
+
+				case MERGE:
+					mergeElement(child, counterpart, counts);
+					break;
+
+				default:
+					replaceElement(child, counterpart);
+					break;
+			}
+			counts[action.ordinal()]++;
+		}
+	}
+
+
+	/**
+	 * Replaces attributes and content of the target, which keeps its position
+	 * among its siblings.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void replaceElement(
+		Element source,
+		Element target
+	)
+	{
+		target.attributes().clear();
+		target.content().clear();
+
+		moveAttributes(source, target);
+		for (var nodeObj : new ArrayList<>(source.content()))
+			target.add(((Node) nodeObj).detach());
+	}
+
+
+	private void mergeElement(
+		Element source,
+		Element target,
+		int[] counts
+	)
+	{
+		moveAttributes(source, target);
+
+		if (source.elements().isEmpty())
+		{
+			// NOTE: a text-only element replaces the text of its counterpart
+			if (!source.getTextTrim().isEmpty())
+				target.setText(source.getText());
+
+			// === SUCCESS ===
+			return;
+		}
+
+		mergeChildren(source, target, indexOf(target), counts);
+	}
+
+
+	@SuppressWarnings("unchecked")
+	private static void moveAttributes(
+		Element source,
+		Element target
+	)
+	{
+		for (var attributeObj : new ArrayList<>(source.attributes()))
+		{
+			var attribute = (Attribute) attributeObj;
+			source.remove(attribute);
+			// NOTE: replaces an attribute of the same name
+			target.addAttribute(attribute.getQName(), attribute.getValue());
+		}
+	}
+
+
+	/**
+	 * Removes the action attribute, and its namespace if declared on the
+	 * element, from the element.
+	 *
+	 * @return the action it asked for, REPLACE if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	private static Action takeAction(
+		Element element
+	)
+	{
+		var attribute = element.attribute(ACTION);
+		if (attribute == null)
+			// === SUCCESS (default) ===
+			return Action.REPLACE;
+
+		element.remove(attribute);
+		for (var namespaceObj : new ArrayList<>(element.declaredNamespaces()))
+			if (NAMESPACE.equals(((Namespace) namespaceObj).getURI()))
+				element.remove((Namespace) namespaceObj);
+		try
+		{
+			// === SUCCESS ===
+			return Action.valueOf(attribute.getValue().trim().toUpperCase());
+		}
+		catch (IllegalArgumentException e)
+		{
+			// === FAIL ===
+			throw new IllegalArgumentException(
+				"Merge action '%s' of <%s> unknown"
+					.formatted(attribute.getValue(), element.getQualifiedName()),
+				e
+			);
+		}
+	}
+}
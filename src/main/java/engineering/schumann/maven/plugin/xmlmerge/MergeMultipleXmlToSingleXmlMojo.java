@@ -18,26 +18,33 @@ package engineering.schumann.maven.plugin.xmlmerge;
 
 
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.AndFileFilter;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
-import org.apache.commons.io.filefilter.IOFileFilter;
-import org.apache.commons.io.filefilter.NotFileFilter;
-import org.apache.commons.io.filefilter.OrFileFilter;
-import org.apache.commons.io.filefilter.RegexFileFilter;
-import org.apache.commons.io.filefilter.RegexPathFilter;
-import org.apache.commons.io.filefilter.RegexPathFilter.FilterMode;
 import org.apache.maven.plugin.MojoExecutionException;
-import org.dom4j.io.OutputFormat;
+import org.codehaus.plexus.util.StringUtils;
+import org.dom4j.Document;
 import org.dom4j.io.XMLWriter;
 
 import be.hikage.maven.plugin.xmlmerge.XdtMerger;
+import engineering.schumann.maven.plugin.xmlmerge.io.AtomicOutputFile;
+import engineering.schumann.maven.plugin.xmlmerge.io.FileTransfer;
+import engineering.schumann.maven.plugin.xmlmerge.jfr.CopyEvent;
+import engineering.schumann.maven.plugin.xmlmerge.jfr.MergeEvent;
+import engineering.schumann.maven.plugin.xmlmerge.jfr.SerializeEvent;
+import engineering.schumann.maven.plugin.xmlmerge.scan.XmlFileScanner;
+import engineering.schumann.maven.plugin.xmlmerge.stats.ExecutionStats;
+import engineering.schumann.maven.plugin.xmlmerge.stats.ExecutionStats.Phase;
 
 
 /**
@@ -72,12 +79,21 @@ public class MergeMultipleXmlToSingleXmlMojo
 	protected boolean failIfNoneFound;
 
 	/**
+	 * "simple", "keyed" or "xdt"
 	 * 
 	 * @parameter default-value="simple"
 	 * @required
 	 */
 	protected String  mergeMode;
 
+	/**
+	 * Attributes identifying an element in merge mode "keyed", comma
+	 * separated, in order of precedence
+	 * 
+	 * @parameter property="xmlmerger.mergeKeys" default-value="id,name"
+	 */
+	protected String  mergeKeys;
+
 	/**
 	 * A set of file and/or path patterns to exclude
 	 * 
@@ -91,6 +107,46 @@ public class MergeMultipleXmlToSingleXmlMojo
 	 */
 	protected String  outputFileName;
 
+	/**
+	 * Flag to keep one document per file group in memory and write the output
+	 * file once. If false, the output file is re-read and re-written for every
+	 * file merged.
+	 * 
+	 * @parameter default-value="true"
+	 * @required
+	 */
+	protected boolean inMemory;
+
+	/**
+	 * Flag to merge with a streaming StAX engine instead of building a
+	 * document in memory. Memory usage stays constant no matter how large the
+	 * output gets, but the output is not pretty-printed. Only supported by
+	 * merge mode "simple". Documents are parsed with the parser backend,
+	 * catalogs and DTD settings configured, their prolog is not processed.
+	 * 
+	 * @parameter default-value="false"
+	 * @required
+	 */
+	protected boolean streaming;
+
+	/**
+	 * Number of file groups to merge at the same time. 0 uses one thread per
+	 * available processor.
+	 * 
+	 * @parameter default-value="1"
+	 * @required
+	 */
+	protected int     parallelism;
+
+	/**
+	 * Flag to merge file groups on virtual threads, for trees that are
+	 * dominated by I/O. Needs Java 21 or later, ignores 'parallelism'.
+	 * 
+	 * @parameter default-value="false"
+	 * @required
+	 */
+	protected boolean virtualThreads;
+
 
 	/*
 	 * ====================
@@ -136,48 +192,48 @@ public class MergeMultipleXmlToSingleXmlMojo
 		selectXmlMerger();
 		// @INFO
 		getLog().info("Merge mode:                    %s".formatted(mergeMode));
-
-		/*
-		 * search files
-		 */
-		var regex    = Pattern.compile(mergeFilenamePattern);
-		var xmlFiles = new ArrayList<File>();
-
-		// BEWARE: byRef is used: xmlFiles
-		findXmlToMerge(inputDirectory, xmlFiles);
+		if (streaming && !(xmlMerger instanceof SimpleMerger))
+		{
+			getLog()
+				.warn(
+					"'streaming' is only supported by merge mode 'simple'. Ignored."
+				);
+			streaming = false;
+		}
+		if (streaming && processProlog)
+			getLog().warn("'processProlog' is ignored while 'streaming'.");
+		// @INFO
 		getLog()
 			.info(
-				"Number of file found to merge: %d".formatted(xmlFiles.size())
+				"Parser backend:                %s"
+					.formatted(getParserBackend())
+			);
+		// @INFO
+		getLog()
+			.info(
+				"Output format:                 %s, %s"
+					.formatted(getOutputStyle(), outputEncoding)
 			);
-
-		if (xmlFiles.size() == 0 && !failIfNoneFound)
-			// === SUCCESS ===
-			return;
-		if (xmlFiles.size() == 0 && failIfNoneFound)
-			// === FAIL ===
-			throw new MojoExecutionException("no XML files found to merge");
 
 		/*
-		 * merge files
+		 * search and group files
 		 */
-		var fileGroups = new HashSet<String>();
+		var regex = Pattern.compile(mergeFilenamePattern);
+		if (regex.matcher("").groupCount() == 0)
+			// === FAIL ===
+			throw new MojoExecutionException(
+				"The pattern has no group to group files by"
+			);
+
+		// NOTE: LinkedHashMap keeps the order in which files were found, so
+		// fragments get merged in the same order as before.
+		var fileGroups = new LinkedHashMap<String, List<File>>();
+		var matcher    = regex.matcher("");
+		var groupName  = mergeFilenamePattern.contains("(?<fileGroup>");
 		try
 		{
-			// iterate over all XML files found
-			for (var fileToMerge : xmlFiles)
-			{
-				// match the file name using the pattern
-				// NOTE: the idea here is to only merge all files with a common
-				// pattern.
-				var matcher = regex.matcher(fileToMerge.getName());
-				if (!matcher.matches() || matcher.groupCount() == 0)
-					throw new MojoExecutionException(
-						"The file do not matches regex"
-					);
-
-				/*
-				 * determine file to merge
-				 */
+			// NOTE: files are grouped while the tree is still being walked
+			scanXmlToMerge(inputDirectory, fileToMerge -> {
 				getLog()
 					.info(
 						"XML file found for merging:    %s"
@@ -188,95 +244,562 @@ public class MergeMultipleXmlToSingleXmlMojo
 				 * determine file group
 				 */
 				// ... take last group by default
-				var fileGroup = matcher.group(matcher.groupCount());
-				if (mergeFilenamePattern.contains("(?<fileGroup>"))
-					fileGroup = matcher.group("fileGroup");
+				matcher.reset(fileToMerge.getName()).matches();
+				var fileGroup = groupName
+					? matcher.group("fileGroup")
+					: matcher.group(matcher.groupCount());
 				getLog()
 					.info(
 						"... file group:                %s".formatted(fileGroup)
 					);
 
-				/*
-				 * determine base file
-				 */
-				// .. ?
-				var baseFileName = EnsureFileExtension(fileGroup, ".xml");
-				// ... file itself
-				var baseFile     = getBaseFile(fileToMerge, baseFileName);
-				if (baseFile.exists())
-					getLog()
-						.info(
-							"... Base file found:           %s"
-								.formatted(baseFile.getAbsolutePath())
-						);
-				else
-					getLog().info("... Base file NOT FOUND.");
+				fileGroups
+					.computeIfAbsent(fileGroup, key -> new ArrayList<File>())
+					.add(fileToMerge);
+			});
+		}
+		catch (IOException e)
+		{
+			throw new MojoExecutionException("Unable to search files", e);
+		}
 
-				/*
-				 * determine output file
-				 */
-				// ... use file group
-				var  outputFileName = EnsureFileExtension(fileGroup, ".xml");
-				// ... file itself
-				File outputFile     = new File(outputDirectory, outputFileName);
-				getLog()
-					.info(
-						"... Output file:               %s"
-							.formatted(outputFile.getAbsolutePath())
-					);
+		var fileCount = fileGroups
+			.values()
+			.stream()
+			.mapToInt(List::size)
+			.sum();
+		getLog()
+			.info("Number of file found to merge: %d".formatted(fileCount));
 
-				// delete existing file, if needed
-				if (cleanOutputFile && !fileGroups.contains(fileGroup)
-					&& outputFile.exists())
-				{
-					outputFile.delete();
+		if (fileCount == 0 && !failIfNoneFound)
+			// === SUCCESS ===
+			return;
+		if (fileCount == 0 && failIfNoneFound)
+			// === FAIL ===
+			throw new MojoExecutionException("no XML files found to merge");
 
-					getLog()
-						.warn(
-							"... DELETED:                   %s"
-								.formatted(outputFile.getAbsolutePath())
+		/*
+		 * merge files
+		 */
+		// NOTE: file groups do not depend on each other. a failing group does
+		// not stop the others, all failures are reported at the end.
+		var failures = new LinkedHashMap<String, Exception>();
+		try
+		{
+			loadBuildState();
+			if (parallelism == 1 && !virtualThreads)
+			{
+				for (var fileGroup : fileGroups.entrySet())
+				{
+					try
+					{
+						mergeFileGroup(
+							fileGroup.getKey(),
+							fileGroup.getValue()
 						);
+					}
+					catch (Exception e)
+					{
+						failures.put(fileGroup.getKey(), e);
+					}
 				}
-				// copy base file if one exists
-				if (baseFile.exists() && !fileGroups.contains(fileGroup))
-				{
-					FileUtils.copyFile(baseFile, outputFile);
+			}
+			else
+				mergeFileGroupsInParallel(fileGroups, failures);
+		}
+		catch (IOException e)
+		{
+			throw new MojoExecutionException("Unable to load build state", e);
+		}
+		finally
+		{
+			shutdownParseExecutor();
+		}
 
-					getLog().info("... copied Base file to Output file");
-				}
+		try
+		{
+			saveBuildState();
+		}
+		catch (IOException e)
+		{
+			getLog().warn("Unable to save build state", e);
+		}
 
-				// add group to list of discovered groups
-				fileGroups.add(fileGroup);
+		reportStats("mergeAllIntoOne");
 
-				/*
-				 * MERGE FILE - nothing to merge
-				 * 
-				 * if output file does not exists than this is the first merge.
-				 * since 1+0=1, we can just copy the file.
-				 */
-				if (!outputFile.exists())
-				{
-					FileUtils.copyFile(fileToMerge, outputFile);
+		// === RESULT ===
+		if (!failures.isEmpty())
+			throw createFailureReport(failures, fileGroups.size());
+	}
 
-					getLog().info("... simple copy performed");
 
-					// === NEXT ===
-					continue;
+	/**
+	 * Merges every file group on its own thread. The files of a group are
+	 * still merged one after the other, in order.
+	 * 
+	 * @param fileGroups
+	 * @param failures
+	 *            receives the exception of every failed group
+	 * @throws MojoExecutionException
+	 */
+	private void mergeFileGroupsInParallel(
+		Map<String, List<File>> fileGroups,
+		Map<String, Exception> failures
+	) throws MojoExecutionException
+	{
+		var executor = createExecutor();
+		try
+		{
+			var futures = new LinkedHashMap<String, Future<Void>>();
+			for (var fileGroup : fileGroups.entrySet())
+				futures
+					.put(fileGroup.getKey(), executor.submit(() -> {
+						mergeFileGroup(fileGroup.getKey(), fileGroup.getValue());
+						return null;
+					}));
+
+			for (var future : futures.entrySet())
+			{
+				try
+				{
+					future.getValue().get();
+				}
+				catch (ExecutionException e)
+				{
+					var cause = e.getCause();
+					failures
+						.put(
+							future.getKey(),
+							cause instanceof Exception
+								? (Exception) cause
+								: e
+						);
 				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
 
-				/*
-				 * MERGE FILE - default
-				 * 
-				 * an output file already exists. now we have to merge.
-				 */
-				mergeXml(outputFile, fileToMerge, outputFile);
+			// === FAIL ===
+			throw new MojoExecutionException("Interrupted while merging xml", e);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+
+	private ExecutorService createExecutor()
+	{
+		if (virtualThreads)
+		{
+			try
+			{
+				// NOTE: reflection, virtual threads need Java 21+
+				var factory = Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor");
+
+				// @INFO
+				getLog().info("Merging file groups on virtual threads");
+
+				// === SUCCESS ===
+				return (ExecutorService) factory.invoke(null);
+			}
+			catch (ReflectiveOperationException e)
+			{
+				getLog()
+					.warn(
+						"Virtual threads are not supported by this JVM. Using platform threads."
+					);
 			}
 		}
+
+		var threads = parallelism > 0
+			? parallelism
+			: Runtime.getRuntime().availableProcessors();
+
+		// @INFO
+		getLog().info("Merging file groups on %d threads".formatted(threads));
+
+		// === SUCCESS ===
+		return Executors.newFixedThreadPool(threads);
+	}
+
+
+	private MojoExecutionException createFailureReport(
+		Map<String, Exception> failures,
+		int fileGroupCount
+	)
+	{
+		var message = new StringBuilder(
+			"Unable to merge xml: %d of %d file groups failed"
+				.formatted(failures.size(), fileGroupCount)
+		);
+		for (var failure : failures.entrySet())
+		{
+			// @ERROR
+			getLog()
+				.error(
+					"File group '%s' failed".formatted(failure.getKey()),
+					failure.getValue()
+				);
+
+			message
+				.append(
+					"%n- %s: %s".formatted(failure.getKey(), failure.getValue())
+				);
+		}
+
+		var exception = new MojoExecutionException(
+			message.toString(),
+			failures.values().iterator().next()
+		);
+		failures.values().stream().skip(1).forEach(exception::addSuppressed);
+
+		// === SUCCESS ===
+		return exception;
+	}
+
+
+	/**
+	 * Merges all files of one file group into the group's output file.
+	 * 
+	 * @param fileGroup
+	 * @param filesToMerge
+	 *            the files of the group, in merge order
+	 * @throws Exception
+	 */
+	protected void mergeFileGroup(
+		String fileGroup,
+		List<File> filesToMerge
+	) throws Exception
+	{
+		// @INFO
+		getLog()
+			.info(
+				"Merging file group:            %s (%d files)"
+					.formatted(fileGroup, filesToMerge.size())
+			);
+
+		/*
+		 * determine base file
+		 */
+		// .. ?
+		var baseFileName = EnsureFileExtension(fileGroup, ".xml");
+		// ... file itself
+		var baseFile     = getBaseFile(filesToMerge.get(0), baseFileName);
+		if (baseFile.exists())
+			getLog()
+				.info(
+					"... Base file found:           %s"
+						.formatted(baseFile.getAbsolutePath())
+				);
+		else
+			getLog().info("... Base file NOT FOUND.");
+
+		/*
+		 * determine output file
+		 */
+		// ... use file group
+		var  outputFileName = EnsureFileExtension(fileGroup, ".xml");
+		// ... file itself
+		File outputFile     = new File(outputDirectory, outputFileName);
+		getLog()
+			.info(
+				"... Output file:               %s"
+					.formatted(outputFile.getAbsolutePath())
+			);
+
+		/*
+		 * skip group if nothing changed
+		 */
+		// NOTE: with cleanOutputFile=false and no base file, the files get
+		// merged into what is already in the output file
+		File seedFile = null;
+		if (baseFile.exists())
+			seedFile = baseFile;
+		else if (!cleanOutputFile && outputFile.exists())
+			seedFile = outputFile;
+
+		var inputs = new ArrayList<File>();
+		if (seedFile != null)
+			inputs.add(seedFile);
+		inputs.addAll(filesToMerge);
+
+		var groupFiles = new ArrayList<File>(inputs);
+		groupFiles.add(outputFile);
+		getStats().assign(fileGroup, groupFiles);
+
+		if (isUpToDate(outputFile, inputs))
+		{
+			getLog().info("... up to date, skipped");
+
+			// === SUCCESS (nothing to do) ===
+			return;
+		}
+		var inputFingerprints = fingerprintInputs(inputs);
+
+		// copy from cache, if merged before
+		var cacheKey = getCacheKey(inputFingerprints);
+		if (restoreFromCache(cacheKey, outputFile))
+		{
+			getLog().info("... copied from merge cache");
+			recordMerge(outputFile, inputFingerprints);
+
+			// === SUCCESS ===
+			return;
+		}
+
+		try
+		{
+			if (streaming)
+				mergeFileGroupStreaming(seedFile, filesToMerge, outputFile);
+			else if (inMemory)
+				mergeFileGroupInMemory(seedFile, filesToMerge, outputFile);
+			else
+				mergeFileGroupOnDisk(baseFile, filesToMerge, outputFile);
+		}
 		catch (Exception e)
 		{
-			throw new MojoExecutionException("Unable to merge xml", e);
+			recordMerge(outputFile, null);
+
+			// === FAIL ===
+			throw e;
+		}
+		storeInCache(cacheKey, outputFile);
+		recordMerge(outputFile, inputFingerprints);
+	}
+
+
+	/**
+	 * Keeps a single document in memory, merges every file of the group into
+	 * it and writes the output file once.
+	 * 
+	 * NOTE: the output file is only replaced once everything has been merged,
+	 * and only if its content changes.
+	 * 
+	 * @param seedFile
+	 *            the file to merge into, null if there is none
+	 * @param filesToMerge
+	 * @param outputFile
+	 * @throws Exception
+	 */
+	private void mergeFileGroupInMemory(
+		File seedFile,
+		List<File> filesToMerge,
+		File outputFile
+	) throws Exception
+	{
+		/*
+		 * determine seed document
+		 */
+		var      remainingFiles = filesToMerge;
+		Document resultDocument;
+		if (seedFile != null)
+			resultDocument = loadBaseXml(seedFile);
+		else if (filesToMerge.size() == 1)
+		{
+			/*
+			 * MERGE FILE - nothing to merge
+			 * 
+			 * 1+0=1, we can just copy the file.
+			 */
+			copyFile(filesToMerge.get(0), outputFile);
+
+			getLog().info("... simple copy performed");
+
+			// === SUCCESS ===
+			return;
+		}
+		else
+		{
+			// first file becomes the seed
+			resultDocument = loadXml(filesToMerge.get(0));
+			remainingFiles = filesToMerge.subList(1, filesToMerge.size());
 		}
 
+		/*
+		 * MERGE FILES
+		 */
+		// NOTE: one call for the whole group. documents are loaded while the
+		// merger iterates them.
+		try (var documentsToMerge = loadXml(remainingFiles))
+		{
+			// NOTE: documents are parsed while merging, that is not merge time.
+			// the flight recorder shows their parse events nested in the merge.
+			var mergedFiles = remainingFiles;
+			var event       = new MergeEvent();
+			event.begin();
+			var started     = System.nanoTime();
+			var waited      = new LongAdder();
+			resultDocument = xmlMerger
+				.mergeAllInto(
+					resultDocument,
+					ExecutionStats.timed(documentsToMerge, waited)
+				);
+			getStats()
+				.add(
+					outputFile,
+					Phase.MERGE,
+					System.nanoTime() - started - waited.sum()
+				);
+			event
+				.finish(
+					outputFile,
+					getStats(),
+					mergeMode,
+					() -> totalLength(mergedFiles)
+				);
+		}
+
+		// write it once
+		writeXml(resultDocument, outputFile);
+	}
+
+
+	/**
+	 * Streams the seed file and every file of the group into the output file
+	 * without building a document.
+	 * 
+	 * @param seedFile
+	 *            the file to merge into, null if there is none
+	 * @param filesToMerge
+	 * @param outputFile
+	 * @throws Exception
+	 */
+	private void mergeFileGroupStreaming(
+		File seedFile,
+		List<File> filesToMerge,
+		File outputFile
+	) throws Exception
+	{
+		/*
+		 * determine seed document
+		 */
+		var remainingFiles = filesToMerge;
+		if (seedFile == null && filesToMerge.size() == 1)
+		{
+			/*
+			 * MERGE FILE - nothing to merge
+			 * 
+			 * 1+0=1, we can just copy the file.
+			 */
+			copyFile(filesToMerge.get(0), outputFile);
+
+			getLog().info("... simple copy performed");
+
+			// === SUCCESS ===
+			return;
+		}
+		else if (seedFile == null)
+		{
+			// first file becomes the seed
+			seedFile       = filesToMerge.get(0);
+			remainingFiles = filesToMerge.subList(1, filesToMerge.size());
+		}
+
+		/*
+		 * MERGE FILES
+		 */
+		// NOTE: the seed may be the output file itself. it is only replaced
+		// once everything has been streamed.
+		try (var output = new AtomicOutputFile(outputFile))
+		{
+			var merger  = new StreamingSimpleMerger(
+				ignoreComments,
+				outputEncoding,
+				getReaderFactory()
+			);
+
+			// NOTE: parsing, merging and serializing cannot be told apart
+			// while streaming, all of it is merge time
+			var event   = new MergeEvent();
+			event.begin();
+			var started = System.nanoTime();
+			merger.merge(seedFile, remainingFiles, output.getOutputStream());
+			getStats().add(outputFile, Phase.MERGE, System.nanoTime() - started);
+			event
+				.finish(outputFile, getStats(), mergeMode, output::getByteCount);
+
+			getStats().addRead(outputFile, seedFile.length());
+			for (var fileToMerge : remainingFiles)
+				getStats().addRead(outputFile, fileToMerge.length());
+
+			commit(output, outputFile);
+
+			getLog()
+				.info(
+					"... streamed %d files".formatted(remainingFiles.size())
+				);
+		}
+	}
+
+
+	/**
+	 * Merges every file of the group by re-reading and re-writing the output
+	 * file. Expensive for large groups, kept for {@code inMemory=false}.
+	 * 
+	 * @param baseFile
+	 * @param filesToMerge
+	 * @param outputFile
+	 * @throws Exception
+	 */
+	private void mergeFileGroupOnDisk(
+		File baseFile,
+		List<File> filesToMerge,
+		File outputFile
+	) throws Exception
+	{
+		// delete existing file, if needed
+		// NOTE: never delete the base file, e.g. if base and output directory
+		// are the same
+		if (cleanOutputFile && outputFile.exists()
+			&& !isSameFile(baseFile, outputFile))
+		{
+			outputFile.delete();
+
+			getLog()
+				.warn(
+					"... DELETED:                   %s"
+						.formatted(outputFile.getAbsolutePath())
+				);
+		}
+
+		// copy base file if one exists
+		if (baseFile.exists() && !isSameFile(baseFile, outputFile))
+		{
+			copyInto(baseFile, outputFile);
+
+			getLog().info("... copied Base file to Output file");
+		}
+
+		for (var fileToMerge : filesToMerge)
+		{
+			/*
+			 * MERGE FILE - nothing to merge
+			 * 
+			 * if output file does not exists than this is the first merge.
+			 * since 1+0=1, we can just copy the file.
+			 */
+			if (!outputFile.exists())
+			{
+				copyInto(fileToMerge, outputFile);
+
+				getLog().info("... simple copy performed");
+
+				// === NEXT ===
+				continue;
+			}
+
+			/*
+			 * MERGE FILE - default
+			 * 
+			 * an output file already exists. now we have to merge.
+			 */
+			mergeXml(outputFile, fileToMerge, outputFile);
+		}
 	}
 
 
@@ -320,52 +843,58 @@ public class MergeMultipleXmlToSingleXmlMojo
 
 	/**
 	 * Override strategy by allowing to exclude folders, e.g. /target.
-	 * 
-	 * @param fileToMerge
-	 * @param baseFileName
 	 */
 	@Override
-	protected void findXmlToMerge(
-		File searchDirectory,
-		List<File> xmlFiles
-	)
+	protected XmlFileScanner createScanner()
 	{
-		// this will become AND( ... )
-		var fileFilters = new ArrayList<IOFileFilter>();
-		// this will become NOT( OR ( ... )
-		var dirFilters  = new ArrayList<IOFileFilter>();
-
-		// === ADD SEARCH PATTERN ===
-		fileFilters.add(new RegexFileFilter(mergeFilenamePattern));
-		dirFilters.add(DirectoryFileFilter.DIRECTORY);
-
-		// === ADD EXCLUDES ===
-		// NOTE: this adds NOT(OR( ... ))
-		if (mExcludes != null && mExcludes.length > 0)
+		if (mExcludes == null || mExcludes.length == 0)
 		{
-			for (var exclude : mExcludes)
-			{
-				fileFilters
-					.add(new NotFileFilter(new RegexFileFilter(exclude)));
-				dirFilters.add(new RegexPathFilter(exclude, FilterMode.REJECT));
-			}
-		}
-		else
 			getLog()
 				.warn(
 					"'inputDirectoryExclude' is EMPTY. Consider excluding '/target'"
 				);
 
-		// === PUT IT ALL TOGETHER
-		var fileFilter = new AndFileFilter(fileFilters);
-		var dirFilter  = new AndFileFilter(dirFilters);
+			// === SUCCESS ===
+			return super.createScanner();
+		}
 
-		// === SEARCH ===
-		var filesFound = FileUtils
-			.listFiles(searchDirectory, fileFilter, dirFilter);
+		// === SUCCESS ===
+		return createScanner(List.of(mExcludes));
+	}
 
-		// === RESULT ===
-		xmlFiles.addAll(filesFound);
+
+	@Override
+	protected String getMergeMode()
+	{
+		return mergeMode;
+	}
+
+
+	@Override
+	protected String getContentSettings()
+	{
+		return String
+			.join(
+				";",
+				super.getContentSettings(),
+				"mergeMode=" + mergeMode,
+				"mergeKeys=" + mergeKeys,
+				"streaming=" + streaming,
+				"inMemory=" + inMemory
+			);
+	}
+
+
+	@Override
+	protected String getEffectiveSettings()
+	{
+		return String
+			.join(
+				";",
+				super.getEffectiveSettings(),
+				"excludes="
+					+ (mExcludes != null ? String.join(",", mExcludes) : "")
+			);
 	}
 
 
@@ -389,26 +918,144 @@ public class MergeMultipleXmlToSingleXmlMojo
 	}
 
 
+	/**
+	 * Copies a file, unless the target already has the same content.
+	 */
+	private void copyFile(
+		File source,
+		File target
+	) throws IOException
+	{
+		var event   = new CopyEvent();
+		event.begin();
+		var started = System.nanoTime();
+		if (FileTransfer.copyIfChanged(source.toPath(), target.toPath()))
+			getStats().addWritten(target, source.length());
+		else
+			getLog()
+				.info(
+					"... unchanged, not written:    %s"
+						.formatted(target.getAbsolutePath())
+				);
+		getStats().addRead(target, source.length());
+		getStats().add(target, Phase.WRITE, System.nanoTime() - started);
+		event.finish(target, getStats(), mergeMode, source::length);
+	}
+
+
+	/**
+	 * Copies a file, whatever the target contains.
+	 */
+	private void copyInto(
+		File source,
+		File target
+	) throws IOException
+	{
+		var event   = new CopyEvent();
+		event.begin();
+		var started = System.nanoTime();
+		FileTransfer.copy(source.toPath(), target.toPath());
+		getStats().addRead(target, source.length());
+		getStats().addWritten(target, source.length());
+		getStats().add(target, Phase.WRITE, System.nanoTime() - started);
+		event.finish(target, getStats(), mergeMode, source::length);
+	}
+
+
+	private static long totalLength(
+		List<File> files
+	)
+	{
+		var length = 0L;
+		for (var file : files)
+			length += file.length();
+
+		return length;
+	}
+
+
+	private static boolean isSameFile(
+		File file1,
+		File file2
+	) throws IOException
+	{
+		if (!file1.exists() || !file2.exists())
+			// === SUCCESS ===
+			return false;
+
+		// === SUCCESS ===
+		return Files.isSameFile(file1.toPath(), file2.toPath());
+	}
+
+
 	private void mergeXml(
 		File inputFile,
 		File fileToMerge,
 		File outputFile
 	) throws Exception
 	{
+		var inputDocument  = loadXml(inputFile);
+		var mergeDocument  = loadXml(fileToMerge);
+
 		// merge document
-		var resultDocument = xmlMerger
-			.mergeXml(loadXml(inputFile), loadXml(fileToMerge));
+		var event          = new MergeEvent();
+		event.begin();
+		var started        = System.nanoTime();
+		var resultDocument = xmlMerger.mergeInto(inputDocument, mergeDocument);
+		getStats().add(outputFile, Phase.MERGE, System.nanoTime() - started);
+		event.finish(outputFile, getStats(), mergeMode, fileToMerge::length);
 
 		// write it back to output file
-		var format         = OutputFormat.createPrettyPrint();
+		writeXml(resultDocument, outputFile);
+	}
+
+
+	private void writeXml(
+		Document document,
+		File outputFile
+	) throws Exception
+	{
+		var format = createOutputFormat();
 		format.setSuppressDeclaration(false);
 		format.setNewLineAfterDeclaration(true);
 
-		var fos    = new FileOutputStream(outputFile);
-		var writer = new XMLWriter(fos, format);
-		writer.write(resultDocument);
-		writer.flush();
-		writer.close();
+		try (var output = new AtomicOutputFile(outputFile))
+		{
+			var event   = new SerializeEvent();
+			event.begin();
+			var started = System.nanoTime();
+			var writer  = new XMLWriter(
+				createOutputWriter(output.getOutputStream()),
+				format
+			);
+			writer.write(document);
+			writer.flush();
+			writer.close();
+
+			var serialized = System.nanoTime();
+			getStats().add(outputFile, Phase.SERIALIZE, serialized - started);
+			event
+				.finish(outputFile, getStats(), mergeMode, output::getByteCount);
+
+			commit(output, outputFile);
+			getStats().add(outputFile, Phase.WRITE, System.nanoTime() - serialized);
+		}
+	}
+
+
+	private void commit(
+		AtomicOutputFile output,
+		File outputFile
+	) throws IOException
+	{
+		if (output.commit())
+			getStats().addWritten(outputFile, output.getByteCount());
+		else
+			getLog()
+				.info(
+					"... unchanged, not written:    %s"
+						.formatted(outputFile.getAbsolutePath())
+				);
 	}
 
 
@@ -422,6 +1069,12 @@ public class MergeMultipleXmlToSingleXmlMojo
 					xmlMerger = new SimpleMerger();
 					break;
 
+				case "keyed":
+					xmlMerger = new KeyedMerger(
+						List.of(StringUtils.split(mergeKeys, ", "))
+					);
+					break;
+
 				case "xdt":
 					xmlMerger = new XdtMerger();
 					break;
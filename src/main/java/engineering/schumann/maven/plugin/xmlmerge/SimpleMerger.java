@@ -4,6 +4,7 @@ package engineering.schumann.maven.plugin.xmlmerge;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.dom4j.Document;
+import org.dom4j.Element;
 import org.dom4j.Node;
 
 import be.hikage.maven.plugin.xmlmerge.XmlMerger;
@@ -36,11 +37,39 @@ public class SimpleMerger
 	)
 	{
 		// === SETUP ===
-		// clone document
+		// clone the base only. elements of the merge data are copied one by
+		// one, so there is no need to clone it as a whole.
 		var targetDoc      = (Document) inputDocument.clone();
 		var targetRoot     = targetDoc.getRootElement();
-		var sourceDoc      = (Document) mergeData.clone();
-		var sourceRoot     = sourceDoc.getRootElement();
+		var sourceElements = mergeData.getRootElement().elements();
+
+		// === BODY ===
+		// @INFO
+		LOG.info("found %d elements to merge".formatted(sourceElements.size()));
+
+		for (var sourceElementObj : sourceElements)
+		{
+			var sourceElement = (Element) sourceElementObj;
+
+			// copy
+			targetRoot.add(sourceElement.createCopy());
+		}
+
+		// === SUCCESS ===
+		return targetDoc;
+	}
+
+
+	@Override
+	public Document mergeInto(
+		Document inputDocument,
+		Document mergeData
+	)
+	{
+		// === SETUP ===
+		// NOTE: both documents are owned by us. no need to clone them.
+		var targetRoot     = inputDocument.getRootElement();
+		var sourceRoot     = mergeData.getRootElement();
 		var sourceElements = sourceRoot.elements();
 
 		// === BODY ===
@@ -58,6 +87,35 @@ public class SimpleMerger
 		}
 
 		// === SUCCESS ===
-		return targetDoc;
+		return inputDocument;
+	}
+
+
+	@Override
+	public Document mergeAllInto(
+		Document inputDocument,
+		Iterable<Document> mergeDataList
+	)
+	{
+		// === SETUP ===
+		var targetRoot = inputDocument.getRootElement();
+		var count      = 0;
+
+		// === BODY ===
+		for (var mergeData : mergeDataList)
+		{
+			for (var sourceElementObj : mergeData.getRootElement().elements())
+			{
+				// change parent
+				targetRoot.add(((Node) sourceElementObj).detach());
+				count++;
+			}
+		}
+
+		// @INFO
+		LOG.info("merged %d elements".formatted(count));
+
+		// === SUCCESS ===
+		return inputDocument;
 	}
 }
@@ -0,0 +1,337 @@
+package engineering.schumann.maven.plugin.xmlmerge;
+
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import engineering.schumann.maven.plugin.xmlmerge.io.XmlReaderFactory;
+
+
+/**
+ * Streaming implementation of the "simple" merge mode.
+ *
+ * Copies the base document up to the end tag of its root element, streams the
+ * children of every fragment's root element through and closes the root. No
+ * document is ever held in memory, so memory usage does not depend on the size
+ * of the output.
+ *
+ * Documents are parsed with the StAX parser of the reader factory, so DTDs and
+ * other external entities are resolved like they are when merging in memory.
+ *
+ * NOTE: the output is written as-is, i.e. it is not pretty-printed.
+ */
+public class StreamingSimpleMerger
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final boolean          f_ignoreComments;
+
+	private final String           f_encoding;
+
+	private final XMLInputFactory  f_inputFactory;
+
+	private final XMLOutputFactory f_outputFactory;
+
+	private final XMLEventFactory  f_eventFactory;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param ignoreComments
+	 * @param encoding
+	 *            of the merged document, e.g. "UTF-8"
+	 * @param readerFactory
+	 *            the configuration of the parser: catalogs, external DTDs and
+	 *            backend
+	 */
+	public StreamingSimpleMerger(
+		boolean ignoreComments,
+		String encoding,
+		XmlReaderFactory readerFactory
+	)
+	{
+		f_ignoreComments = ignoreComments;
+		f_encoding       = encoding;
+		f_inputFactory   = readerFactory.createInputFactory();
+
+		// NOTE: always the JDK implementation, whatever is on the class path
+		f_outputFactory  = XMLOutputFactory.newDefaultFactory();
+		f_eventFactory   = XMLEventFactory.newDefaultFactory();
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Merges the children of the root element of all files to merge into the
+	 * base file.
+	 *
+	 * @param baseFile
+	 *            the document to merge into
+	 * @param filesToMerge
+	 *            the fragments, in merge order
+	 * @param output
+	 *            receives the merged document. NOT closed.
+	 * @throws IOException
+	 * @throws XMLStreamException
+	 */
+	public void merge(
+		File baseFile,
+		List<File> filesToMerge,
+		OutputStream output
+	) throws IOException, XMLStreamException
+	{
+		var writer = f_outputFactory.createXMLEventWriter(output, f_encoding);
+
+		try (var baseStream = openStream(baseFile))
+		{
+			var reader = f_inputFactory
+				.createXMLEventReader(systemIdOf(baseFile), baseStream);
+			try
+			{
+				// === HEAD ===
+				// copy everything up to the end tag of the root element
+				var rootEnd = copyUntilRootEnd(reader, writer);
+
+				// === BODY ===
+				for (var fileToMerge : filesToMerge)
+					copyRootChildren(fileToMerge, writer);
+
+				// === TAIL ===
+				writer.add(rootEnd);
+				copyRemaining(reader, writer);
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+
+		writer.flush();
+		writer.close();
+	}
+
+
+	private XMLEvent copyUntilRootEnd(
+		XMLEventReader reader,
+		XMLEventWriter writer
+	) throws XMLStreamException
+	{
+		var depth = 0;
+		while (reader.hasNext())
+		{
+			var event = reader.nextEvent();
+			switch (event.getEventType())
+			{
+				case XMLStreamConstants.START_DOCUMENT:
+					// NOTE: written in the output encoding, whatever the base
+					// used
+					writer.add(f_eventFactory.createStartDocument(f_encoding));
+					writer.add(f_eventFactory.createCharacters("\n"));
+					continue;
+
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					break;
+
+				case XMLStreamConstants.END_ELEMENT:
+					depth--;
+					if (depth == 0)
+						// === SUCCESS ===
+						return event;
+					break;
+
+				default:
+					break;
+			}
+
+			if (!isIgnored(event))
+				writer.add(event);
+		}
+
+		// === FAIL ===
+		throw new XMLStreamException("Base document has no root element");
+	}
+
+
+	private void copyRootChildren(
+		File fileToMerge,
+		XMLEventWriter writer
+	) throws IOException, XMLStreamException
+	{
+		try (var stream = openStream(fileToMerge))
+		{
+			var reader = f_inputFactory
+				.createXMLEventReader(systemIdOf(fileToMerge), stream);
+			try
+			{
+				var             depth          = 0;
+				List<Namespace> rootNamespaces = List.of();
+				while (reader.hasNext())
+				{
+					var event = reader.nextEvent();
+					if (event.isStartElement())
+					{
+						depth++;
+						if (depth == 1)
+						{
+							// skip root element, but remember its namespaces
+							rootNamespaces = namespacesOf(
+								event.asStartElement()
+							);
+							continue;
+						}
+						if (depth == 2 && !rootNamespaces.isEmpty())
+							event = withNamespaces(
+								event.asStartElement(),
+								rootNamespaces
+							);
+					}
+					else if (event.isEndElement())
+					{
+						depth--;
+						if (depth == 0)
+							// === SUCCESS ===
+							return;
+					}
+
+					// only copy what is inside the root element
+					if (depth >= 1 && !isIgnored(event))
+						writer.add(event);
+				}
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+	}
+
+
+	/**
+	 * Children of a fragment may use prefixes declared on the fragment's root
+	 * element, which is not copied. Re-declare them on each child.
+	 */
+	private StartElement withNamespaces(
+		StartElement element,
+		List<Namespace> rootNamespaces
+	)
+	{
+		var namespaces = new ArrayList<Namespace>(namespacesOf(element));
+		for (var rootNamespace : rootNamespaces)
+		{
+			var redeclared = false;
+			for (var namespace : namespaces)
+				redeclared |= namespace
+					.getPrefix()
+					.equals(rootNamespace.getPrefix());
+			if (!redeclared)
+				namespaces.add(rootNamespace);
+		}
+
+		return f_eventFactory
+			.createStartElement(
+				element.getName(),
+				element.getAttributes(),
+				namespaces.iterator()
+			);
+	}
+
+
+	private static List<Namespace> namespacesOf(
+		StartElement element
+	)
+	{
+		var namespaces = new ArrayList<Namespace>();
+		var iterator   = element.getNamespaces();
+		while (iterator.hasNext())
+			namespaces.add(iterator.next());
+
+		return namespaces;
+	}
+
+
+	private void copyRemaining(
+		XMLEventReader reader,
+		XMLEventWriter writer
+	) throws XMLStreamException
+	{
+		while (reader.hasNext())
+		{
+			var event = reader.nextEvent();
+			if (!isIgnored(event))
+				writer.add(event);
+		}
+	}
+
+
+	private boolean isIgnored(
+		XMLEvent event
+	)
+	{
+		return f_ignoreComments
+			&& event.getEventType() == XMLStreamConstants.COMMENT;
+	}
+
+
+	/**
+	 * @return where relative entities, e.g. DTDs, are resolved against
+	 */
+	private static String systemIdOf(
+		File file
+	)
+	{
+		return file.toURI().toString();
+	}
+
+
+	private static InputStream openStream(
+		File file
+	) throws IOException
+	{
+		return new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+	}
+}
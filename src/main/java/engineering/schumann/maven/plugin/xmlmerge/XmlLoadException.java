@@ -0,0 +1,64 @@
+package engineering.schumann.maven.plugin.xmlmerge;
+
+
+import java.io.File;
+
+
+/**
+ * Unchecked wrapper for errors while loading an XML file, e.g. while a
+ * {@link DocumentSequence} is iterated.
+ */
+public class XmlLoadException
+	extends
+	RuntimeException
+{
+	/*
+	 * ====================
+	 * 
+	 * CONSTANTS
+	 * 
+	 * ====================
+	 */
+	private static final long serialVersionUID = 1L;
+
+
+	/*
+	 * ====================
+	 * 
+	 * FIELDS
+	 * 
+	 * ====================
+	 */
+	private final File        f_file;
+
+
+	/*
+	 * ====================
+	 * 
+	 * CONSTRUCTOR
+	 * 
+	 * ====================
+	 */
+	public XmlLoadException(
+		File file,
+		Throwable cause
+	)
+	{
+		super("Unable to load %s".formatted(file.getAbsolutePath()), cause);
+
+		f_file = file;
+	}
+
+
+	/*
+	 * ====================
+	 * 
+	 * GETTER & SETTER
+	 * 
+	 * ====================
+	 */
+	public File getFile()
+	{
+		return f_file;
+	}
+}
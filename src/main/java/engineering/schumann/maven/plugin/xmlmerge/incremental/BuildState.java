@@ -0,0 +1,297 @@
+package engineering.schumann.maven.plugin.xmlmerge.incremental;
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+
+/**
+ * Persistent record of what every output file was merged from, used to skip
+ * merges whose inputs did not change since the last build.
+ *
+ * For each output file it stores the effective settings and the fingerprints
+ * of the inputs and of the output itself. An output is up to date if it still
+ * has the content that was written, the settings are the same and every input
+ * still has the same content.
+ *
+ * NOTE: an input may be the output file itself, e.g. if base and output
+ * directory are the same. Its content is expected to be what was written
+ * last, not what was read.
+ */
+public class BuildState
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	private static final String KEY_SETTINGS    = "#settings";
+
+	private static final String KEY_OUTPUT      = "#output";
+
+	private static final String KEY_INPUT_COUNT = "#input.count";
+
+	private static final String KEY_INPUT       = "#input.";
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final File                         f_stateFile;
+
+	private final Properties                   f_properties = new Properties();
+
+	/** all fingerprints known, by path. to avoid hashing untouched files. */
+	private final Map<String, FileFingerprint> f_known      = new HashMap<>();
+
+	private boolean                            f_dirty;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	private BuildState(
+		File stateFile
+	)
+	{
+		f_stateFile = stateFile;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * FACTORY
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param stateFile
+	 * @return the state stored in the file, empty if there is none
+	 * @throws IOException
+	 */
+	public static BuildState load(
+		File stateFile
+	) throws IOException
+	{
+		var state = new BuildState(stateFile);
+		if (stateFile.isFile())
+		{
+			try (var input = new FileInputStream(stateFile))
+			{
+				state.f_properties.load(input);
+			}
+
+			for (var value : state.f_properties.values())
+			{
+				var fingerprint = FileFingerprint.parse((String) value);
+				if (fingerprint != null)
+					state.f_known.put(fingerprint.getPath(), fingerprint);
+			}
+		}
+
+		// === SUCCESS ===
+		return state;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param outputFile
+	 * @param settings
+	 *            the effective settings used to merge
+	 * @param inputs
+	 *            the files merged, in order
+	 * @return true, if merging the inputs would produce what is already in the
+	 *         output file
+	 * @throws IOException
+	 */
+	public synchronized boolean isUpToDate(
+		File outputFile,
+		String settings,
+		List<File> inputs
+	) throws IOException
+	{
+		var prefix = outputFile.getAbsolutePath();
+
+		// === SETTINGS ===
+		var recordedSettings = f_properties.getProperty(prefix + KEY_SETTINGS);
+		if (!hash(settings).equals(recordedSettings))
+			// === SUCCESS (changed) ===
+			return false;
+
+		// === OUTPUT ===
+		var output = FileFingerprint
+			.parse(f_properties.getProperty(prefix + KEY_OUTPUT));
+		if (output == null || !output.matches(outputFile))
+			// === SUCCESS (changed) ===
+			return false;
+
+		// === INPUTS ===
+		if (!Integer.toString(inputs.size())
+			.equals(f_properties.getProperty(prefix + KEY_INPUT_COUNT)))
+			// === SUCCESS (changed) ===
+			return false;
+
+		for (var i = 0; i < inputs.size(); i++)
+		{
+			var inputFile = inputs.get(i);
+			var input     = FileFingerprint
+				.parse(f_properties.getProperty(prefix + KEY_INPUT + i));
+			if (input == null
+				|| !input.getPath().equals(inputFile.getAbsolutePath()))
+				// === SUCCESS (changed) ===
+				return false;
+
+			// NOTE: the output has already been checked
+			if (input.getPath().equals(prefix))
+				continue;
+
+			if (!input.matches(inputFile))
+				// === SUCCESS (changed) ===
+				return false;
+		}
+
+		// === SUCCESS ===
+		return true;
+	}
+
+
+	/**
+	 * Takes the fingerprints of the inputs. Must be called before merging,
+	 * since an input may be overwritten by the output.
+	 *
+	 * @param inputs
+	 * @return
+	 * @throws IOException
+	 */
+	public List<FileFingerprint> fingerprint(
+		List<File> inputs
+	) throws IOException
+	{
+		var fingerprints = new ArrayList<FileFingerprint>(inputs.size());
+		for (var input : inputs)
+		{
+			FileFingerprint known;
+			synchronized (this)
+			{
+				known = f_known.get(input.getAbsolutePath());
+			}
+
+			fingerprints
+				.add(
+					known != null
+						? known.refresh(input)
+						: FileFingerprint.of(input)
+				);
+		}
+
+		// === SUCCESS ===
+		return fingerprints;
+	}
+
+
+	/**
+	 * Records a successful merge.
+	 *
+	 * @param outputFile
+	 *            the file written
+	 * @param settings
+	 *            the effective settings used to merge
+	 * @param inputs
+	 *            as returned by {@link #fingerprint(List)} before merging
+	 * @throws IOException
+	 */
+	public synchronized void record(
+		File outputFile,
+		String settings,
+		List<FileFingerprint> inputs
+	) throws IOException
+	{
+		forget(outputFile);
+
+		var prefix = outputFile.getAbsolutePath();
+		var output = FileFingerprint.of(outputFile);
+		f_properties.setProperty(prefix + KEY_SETTINGS, hash(settings));
+		f_properties.setProperty(prefix + KEY_OUTPUT, output.toString());
+		f_properties
+			.setProperty(
+				prefix + KEY_INPUT_COUNT,
+				Integer.toString(inputs.size())
+			);
+		for (var i = 0; i < inputs.size(); i++)
+			f_properties
+				.setProperty(prefix + KEY_INPUT + i, inputs.get(i).toString());
+
+		f_known.put(output.getPath(), output);
+		f_dirty = true;
+	}
+
+
+	/**
+	 * Removes what is known about an output file, e.g. after a failed merge.
+	 *
+	 * @param outputFile
+	 */
+	public synchronized void forget(
+		File outputFile
+	)
+	{
+		var prefix = outputFile.getAbsolutePath() + "#";
+		f_dirty |= f_properties
+			.keySet()
+			.removeIf(key -> ((String) key).startsWith(prefix));
+	}
+
+
+	public synchronized void save() throws IOException
+	{
+		if (!f_dirty)
+			// === SUCCESS (nothing to do) ===
+			return;
+
+		f_stateFile.getParentFile().mkdirs();
+		try (var output = new FileOutputStream(f_stateFile))
+		{
+			f_properties.store(output, "maven-xmlmerger-plugin build state");
+		}
+		f_dirty = false;
+	}
+
+
+	private static String hash(
+		String value
+	)
+	{
+		return FileFingerprint
+			.toHex(
+				FileFingerprint
+					.newDigest()
+					.digest(value.getBytes(StandardCharsets.UTF_8))
+			);
+	}
+}
@@ -0,0 +1,254 @@
+package engineering.schumann.maven.plugin.xmlmerge.incremental;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import engineering.schumann.maven.plugin.xmlmerge.io.FileTransfer;
+
+
+/**
+ * Size, modification time and content hash of a file.
+ *
+ * Comparing with a file is cheap if size and modification time did not change:
+ * the content is only hashed again if they did.
+ */
+public final class FileFingerprint
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	private static final String SEPARATOR = "|";
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final String f_path;
+
+	private final long   f_size;
+
+	private final long   f_lastModified;
+
+	private final String f_hash;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	private FileFingerprint(
+		String path,
+		long size,
+		long lastModified,
+		String hash
+	)
+	{
+		f_path         = path;
+		f_size         = size;
+		f_lastModified = lastModified;
+		f_hash         = hash;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * FACTORY
+	 *
+	 * ====================
+	 */
+	public static FileFingerprint of(
+		File file
+	) throws IOException
+	{
+		return new FileFingerprint(
+			file.getAbsolutePath(),
+			file.length(),
+			file.lastModified(),
+			hash(file)
+		);
+	}
+
+
+	/**
+	 * @param value
+	 *            as returned by {@link #toString()}
+	 * @return the fingerprint or null, if the value is malformed
+	 */
+	public static FileFingerprint parse(
+		String value
+	)
+	{
+		if (value == null)
+			// === FAIL ===
+			return null;
+
+		var parts = value.split("\\|", 4);
+		if (parts.length != 4)
+			// === FAIL ===
+			return null;
+
+		try
+		{
+			// === SUCCESS ===
+			return new FileFingerprint(
+				parts[3],
+				Long.parseLong(parts[0]),
+				Long.parseLong(parts[1]),
+				parts[2]
+			);
+		}
+		catch (NumberFormatException e)
+		{
+			// === FAIL ===
+			return null;
+		}
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * GETTER & SETTER
+	 *
+	 * ====================
+	 */
+	public String getPath()
+	{
+		return f_path;
+	}
+
+
+	public String getHash()
+	{
+		return f_hash;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Checks whether the file still has the content this fingerprint was taken
+	 * from.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public boolean matches(
+		File file
+	) throws IOException
+	{
+		if (!file.isFile() || file.length() != f_size)
+			// === SUCCESS (changed) ===
+			return false;
+
+		if (file.lastModified() == f_lastModified)
+			// === SUCCESS (untouched) ===
+			return true;
+
+		// touched, but maybe still the same content
+		// === SUCCESS ===
+		return f_hash.equals(hash(file));
+	}
+
+
+	/**
+	 * Same as {@link #of(File)}, but re-uses the hash of this fingerprint if
+	 * the file is untouched.
+	 *
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public FileFingerprint refresh(
+		File file
+	) throws IOException
+	{
+		if (file.getAbsolutePath().equals(f_path) && file.length() == f_size
+			&& file.lastModified() == f_lastModified)
+			// === SUCCESS ===
+			return this;
+
+		// === SUCCESS ===
+		return of(file);
+	}
+
+
+	public static String hash(
+		File file
+	) throws IOException
+	{
+		var digest = newDigest();
+		FileTransfer.digest(file.toPath(), digest);
+
+		// === SUCCESS ===
+		return toHex(digest.digest());
+	}
+
+
+	public static MessageDigest newDigest()
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			// NOTE: every JVM has to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+
+	public static String toHex(
+		byte[] bytes
+	)
+	{
+		var hex = new StringBuilder(bytes.length * 2);
+		for (var b : bytes)
+			hex.append("%02x".formatted(b & 0xff));
+
+		return hex.toString();
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS (From Object)
+	 *
+	 * ====================
+	 */
+	@Override
+	public String toString()
+	{
+		return String
+			.join(
+				SEPARATOR,
+				Long.toString(f_size),
+				Long.toString(f_lastModified),
+				f_hash,
+				f_path
+			);
+	}
+}
@@ -0,0 +1,232 @@
+package engineering.schumann.maven.plugin.xmlmerge.incremental;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import engineering.schumann.maven.plugin.xmlmerge.io.FileTransfer;
+
+
+/**
+ * Content-addressed cache of merged output files, shared across builds and
+ * modules.
+ *
+ * Entries are keyed by the settings and the content hashes of all inputs, in
+ * order. Since an entry is never changed once written, any number of builds can
+ * use the same cache directory at the same time.
+ *
+ * NOTE: entries are copied, never linked. An output file may be changed in
+ * place later, e.g. when it is the base file of another merge.
+ *
+ * The cache is kept below a size limit by {@link #trim()}, which deletes the
+ * entries used least recently. Restoring an entry counts as a use.
+ */
+public class MergeCache
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	/** change to invalidate all entries, e.g. if the output format changes */
+	private static final String VERSION     = "xmlmerger-cache-2";
+
+	/** suffix of the files entries are copied to before they are moved */
+	private static final String TEMP_SUFFIX = ".tmp";
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final File f_directory;
+
+	private final long f_maxBytes;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param directory
+	 * @param maxBytes
+	 *            the size {@link #trim()} keeps the cache below. 0 or less for
+	 *            no limit.
+	 */
+	public MergeCache(
+		File directory,
+		long maxBytes
+	)
+	{
+		f_directory = directory;
+		f_maxBytes  = maxBytes;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param settings
+	 *            the effective settings used to merge
+	 * @param inputs
+	 *            fingerprints of the files merged, in order
+	 * @return
+	 */
+	public String key(
+		String settings,
+		List<FileFingerprint> inputs
+	)
+	{
+		var digest = FileFingerprint.newDigest();
+		digest.update(toBytes(VERSION));
+		digest.update(toBytes(settings));
+		for (var input : inputs)
+			digest.update(toBytes(input.getHash()));
+
+		// === SUCCESS ===
+		return FileFingerprint.toHex(digest.digest());
+	}
+
+
+	/**
+	 * Copies the cached output, if there is one. The output file is replaced
+	 * atomically, and left alone if it already has the same content. If
+	 * replaced, it gets the current time, like a merged output does, not the
+	 * time of the entry.
+	 *
+	 * @param key
+	 * @param outputFile
+	 * @return true, if the output file has been restored from the cache
+	 * @throws IOException
+	 */
+	public boolean restore(
+		String key,
+		File outputFile
+	) throws IOException
+	{
+		var entry = getEntry(key);
+		if (!entry.isFile())
+			// === SUCCESS (miss) ===
+			return false;
+
+		FileTransfer.replaceIfChanged(entry.toPath(), outputFile.toPath());
+		// NOTE: marks the entry as used, for trim
+		Files
+			.setLastModifiedTime(
+				entry.toPath(),
+				FileTime.fromMillis(System.currentTimeMillis())
+			);
+
+		// === SUCCESS (hit) ===
+		return true;
+	}
+
+
+	/**
+	 * Adds an output file to the cache, unless there is an entry already.
+	 *
+	 * @param key
+	 * @param outputFile
+	 * @throws IOException
+	 */
+	public void store(
+		String key,
+		File outputFile
+	) throws IOException
+	{
+		var entry = getEntry(key);
+		if (entry.isFile())
+			// === SUCCESS (nothing to do) ===
+			return;
+
+		// NOTE: copied next to the entry first, so nobody sees a partial entry.
+		// if someone else stores the same entry meanwhile, it has the same
+		// content anyway.
+		FileTransfer.copy(outputFile.toPath(), entry.toPath());
+	}
+
+
+	/**
+	 * Deletes the entries used least recently, until the cache is below its
+	 * size limit. Entries being written by other builds are left alone.
+	 *
+	 * @return the number of entries deleted
+	 * @throws IOException
+	 */
+	public int trim() throws IOException
+	{
+		var buckets = f_directory.listFiles(File::isDirectory);
+		if (f_maxBytes <= 0 || buckets == null)
+			// === SUCCESS (no limit) ===
+			return 0;
+
+		var entries = new ArrayList<File>();
+		var size    = 0L;
+		for (var bucket : buckets)
+			for (var entry : bucket.listFiles())
+				if (entry.isFile() && !entry.getName().endsWith(TEMP_SUFFIX))
+				{
+					entries.add(entry);
+					size += entry.length();
+				}
+
+		if (size <= f_maxBytes)
+			// === SUCCESS (nothing to do) ===
+			return 0;
+
+		entries.sort(Comparator.comparingLong(File::lastModified));
+		var deleted = 0;
+		for (var entry : entries)
+		{
+			if (size <= f_maxBytes)
+				break;
+
+			var length = entry.length();
+			// NOTE: a build restoring it meanwhile merges instead
+			if (Files.deleteIfExists(entry.toPath()))
+			{
+				size -= length;
+				deleted++;
+			}
+		}
+
+		// === SUCCESS ===
+		return deleted;
+	}
+
+
+	private static byte[] toBytes(
+		String line
+	)
+	{
+		return (line + "\n").getBytes(StandardCharsets.UTF_8);
+	}
+
+
+	private File getEntry(
+		String key
+	)
+	{
+		return new File(new File(f_directory, key.substring(0, 2)), key);
+	}
+}
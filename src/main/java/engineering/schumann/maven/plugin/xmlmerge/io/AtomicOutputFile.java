@@ -0,0 +1,233 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+
+
+/**
+ * Output file that is only replaced if its content changes.
+ *
+ * Everything is written to memory first, or to a temporary file next to the
+ * target once it gets large. On {@link #commit()} the result is compared with
+ * the existing file. If it differs, it atomically replaces the file.
+ * Otherwise the file, including its modification time, is left alone, so
+ * incremental steps further down the build do not see a change.
+ *
+ * If not committed, e.g. because the merge failed, nothing is written at all.
+ * A replaced file keeps its permissions, a new one gets the default ones.
+ *
+ * Usage:
+ *
+ * <pre>
+ * try (var output = new AtomicOutputFile(file))
+ * {
+ * 	write(output.getOutputStream());
+ * 	output.commit();
+ * }
+ * </pre>
+ */
+public class AtomicOutputFile
+	implements
+	Closeable
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	/** larger outputs are written to a temporary file */
+	private static final int MEMORY_THRESHOLD = 4 * 1024 * 1024;
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final File                     f_file;
+
+	private final Path                     f_tempFile;
+
+	private final DeferredFileOutputStream f_output;
+
+	private boolean                        f_committed;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	public AtomicOutputFile(
+		File file
+	) throws IOException
+	{
+		f_file = file.getAbsoluteFile();
+		f_file.getParentFile().mkdirs();
+
+		// NOTE: an output file, not a prefix. the stream would create it with
+		// Files.createTempFile otherwise, which only the owner may access.
+		f_tempFile = FileTransfer.createTempFile(f_file.toPath());
+		f_output   = DeferredFileOutputStream
+			.builder()
+			.setThreshold(MEMORY_THRESHOLD)
+			.setOutputFile(f_tempFile.toFile())
+			.get();
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * GETTER & SETTER
+	 *
+	 * ====================
+	 */
+	/**
+	 * @return the stream to write the content to. May be closed by the caller.
+	 */
+	public OutputStream getOutputStream()
+	{
+		return f_output;
+	}
+
+
+	/**
+	 * @return the number of bytes written so far
+	 */
+	public long getByteCount()
+	{
+		return f_output.getByteCount();
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Replaces the file with what has been written, if the content differs.
+	 *
+	 * @return true, if the file has been replaced
+	 * @throws IOException
+	 */
+	public boolean commit() throws IOException
+	{
+		f_output.close();
+		f_committed = true;
+
+		if (isUnchanged())
+		{
+			discard();
+
+			// === SUCCESS (nothing to do) ===
+			return false;
+		}
+
+		try
+		{
+			if (f_output.isInMemory())
+				Files.write(f_tempFile, f_output.getData());
+			FileTransfer.copyPermissions(f_file.toPath(), f_tempFile);
+			replace(f_tempFile, f_file.toPath());
+		}
+		finally
+		{
+			Files.deleteIfExists(f_tempFile);
+		}
+
+		// === SUCCESS ===
+		return true;
+	}
+
+
+	private boolean isUnchanged() throws IOException
+	{
+		if (!f_file.isFile())
+			// === SUCCESS ===
+			return false;
+
+		if (!f_output.isInMemory())
+			// === SUCCESS ===
+			return FileTransfer
+				.contentEquals(f_file.toPath(), f_output.getFile().toPath());
+
+		var data = f_output.getData();
+		if (f_file.length() != data.length)
+			// === SUCCESS ===
+			return false;
+
+		try (var existing = new FileInputStream(f_file))
+		{
+			// === SUCCESS ===
+			return IOUtils
+				.contentEquals(existing, new ByteArrayInputStream(data));
+		}
+	}
+
+
+	private static void replace(
+		Path source,
+		Path target
+	) throws IOException
+	{
+		try
+		{
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+
+	private void discard() throws IOException
+	{
+		Files.deleteIfExists(f_tempFile);
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS (From Closeable)
+	 *
+	 * ====================
+	 */
+	/**
+	 * Discards what has been written, unless committed.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (f_committed)
+			// === SUCCESS (nothing to do) ===
+			return;
+
+		f_output.close();
+		discard();
+		f_committed = true;
+	}
+}
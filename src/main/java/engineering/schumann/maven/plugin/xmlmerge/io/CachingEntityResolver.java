@@ -0,0 +1,168 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.catalog.CatalogFeatures;
+import javax.xml.catalog.CatalogManager;
+import javax.xml.catalog.CatalogResolver;
+
+import org.apache.commons.io.IOUtils;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+
+/**
+ * Resolves DTDs and other external entities, preferably from OASIS XML
+ * catalogs.
+ *
+ * Entities are loaded once per resolver and kept in memory as long as it is,
+ * so a DTD declared by thousands of files is fetched a single time. Each mojo
+ * execution creates its own resolver, nothing outlives it. Entities not found
+ * in a catalog are replaced by an empty document, if external DTDs must not be
+ * loaded.
+ */
+public class CachingEntityResolver
+	implements
+	EntityResolver
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	private static final int TIMEOUT_MILLIS = 10_000;
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final CatalogResolver                   f_catalogResolver;
+
+	private final boolean                           f_loadExternalDtds;
+
+	/** entities already loaded, by resolved system id */
+	private final ConcurrentHashMap<String, byte[]> f_entities;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param catalogs
+	 *            OASIS XML catalog files, consulted in order. May be empty.
+	 * @param loadExternalDtds
+	 *            false to never load entities not found in a catalog
+	 */
+	public CachingEntityResolver(
+		List<File> catalogs,
+		boolean loadExternalDtds
+	)
+	{
+		f_loadExternalDtds = loadExternalDtds;
+		f_entities         = new ConcurrentHashMap<>();
+
+		if (catalogs.isEmpty())
+			f_catalogResolver = null;
+		else
+		{
+			var uris = catalogs
+				.stream()
+				.map(File::toURI)
+				.toArray(URI[]::new);
+
+			// NOTE: "continue" falls back to the system id, if not in a catalog
+			f_catalogResolver = CatalogManager
+				.catalogResolver(
+					CatalogFeatures
+						.builder()
+						.with(CatalogFeatures.Feature.RESOLVE, "continue")
+						.build(),
+					uris
+				);
+		}
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	@Override
+	public InputSource resolveEntity(
+		String publicId,
+		String systemId
+	) throws SAXException, IOException
+	{
+		String resolvedId = null;
+		if (f_catalogResolver != null)
+		{
+			var resolved = f_catalogResolver.resolveEntity(publicId, systemId);
+			if (resolved != null)
+				resolvedId = resolved.getSystemId();
+		}
+
+		if (resolvedId == null)
+		{
+			if (!f_loadExternalDtds || systemId == null)
+			{
+				// === SUCCESS (never loaded) ===
+				var empty = new InputSource(new StringReader(""));
+				empty.setPublicId(publicId);
+				empty.setSystemId(systemId);
+				return empty;
+			}
+
+			resolvedId = systemId;
+		}
+
+		var content = f_entities.get(resolvedId);
+		if (content == null)
+		{
+			content = load(resolvedId);
+			f_entities.putIfAbsent(resolvedId, content);
+		}
+
+		var source = new InputSource(new ByteArrayInputStream(content));
+		source.setPublicId(publicId);
+		// NOTE: entities relative to this one are resolved against it
+		source.setSystemId(resolvedId);
+		return source;
+	}
+
+
+	private static byte[] load(
+		String systemId
+	) throws IOException
+	{
+		var connection = new URL(systemId).openConnection();
+		connection.setConnectTimeout(TIMEOUT_MILLIS);
+		connection.setReadTimeout(TIMEOUT_MILLIS);
+
+		try (var input = connection.getInputStream())
+		{
+			return IOUtils.toByteArray(input);
+		}
+	}
+}
@@ -0,0 +1,436 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.dom4j.Branch;
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.Element;
+
+
+/**
+ * Cache of parsed documents, shared by all executions of the plugin within a
+ * build session.
+ *
+ * Entries are keyed by the canonical path of the file and the configuration of
+ * the reader. They are reparsed when the size, the modification time, the
+ * file key (inode) or the change time of the file changes. The change time
+ * catches a rewrite of the same size within one tick of the modification time,
+ * as well as a modification time set back. Least recently used entries are
+ * evicted once the estimated memory used by all entries exceeds the budget.
+ *
+ * NOTE: callers get a copy, so merging into it never changes the cached
+ * document, unless they ask for the shared one and promise not to change it.
+ *
+ * NOTE: caches are held weakly by the key of their session. Once a session is
+ * over, e.g. in a long running daemon, its cache is garbage like the session
+ * itself.
+ */
+public class DocumentCache
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	/** rough size of a dom4j tree, relative to the size of the file parsed */
+	private static final int                        MEMORY_PER_FILE_BYTE = 6;
+
+	private static final Map<Object, DocumentCache> SESSIONS             = new WeakHashMap<>();
+
+	/** the change time is only available on unix */
+	private static final boolean                    UNIX                 = FileSystems
+		.getDefault()
+		.supportedFileAttributeViews()
+		.contains("unix");
+
+
+	/*
+	 * ====================
+	 *
+	 * TYPES
+	 *
+	 * ====================
+	 */
+	@FunctionalInterface
+	public interface Loader
+	{
+		/**
+		 * @param file
+		 * @param prologBuffer
+		 *            receives the prolog. null if the prolog is not processed.
+		 */
+		Document load(
+			File file,
+			StringBuilder prologBuffer
+		) throws DocumentException, IOException;
+	}
+
+
+	private static class Entry
+	{
+		/** size, modification time, file key and change time of the file */
+		private List<?>  f_stamp;
+
+		private long     f_weight;
+
+		private Document f_document;
+
+		private String   f_prolog;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final LinkedHashMap<String, Entry> f_entries = new LinkedHashMap<>(
+		16,
+		0.75f,
+		true
+	);
+
+	private long                               f_maxBytes;
+
+	private long                               f_usedBytes;
+
+	private long                               f_hits;
+
+	private long                               f_misses;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * A cache of its own. Use {@link #forSession(Object)} to share one.
+	 */
+	public DocumentCache()
+	{
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * NOTE: parallel builds run every module with a clone of the session. Pass
+	 * something the clones share, e.g. the execution request of the session,
+	 * not the session itself.
+	 *
+	 * @param sessionKey
+	 *            identifies the build session, null if there is none, e.g. in
+	 *            tests
+	 * @return the cache shared by all executions within the session. A new
+	 *         one, if there is no session.
+	 */
+	public static DocumentCache forSession(
+		Object sessionKey
+	)
+	{
+		if (sessionKey == null)
+			// === SUCCESS ===
+			return new DocumentCache();
+
+		synchronized (SESSIONS)
+		{
+			// === SUCCESS ===
+			return SESSIONS
+				.computeIfAbsent(sessionKey, key -> new DocumentCache());
+		}
+	}
+
+
+	/**
+	 * Sets the memory budget. Evicts entries, if it is exceeded. 0 disables the
+	 * cache and drops all entries.
+	 *
+	 * @param maxBytes
+	 */
+	public synchronized void setMaxBytes(
+		long maxBytes
+	)
+	{
+		f_maxBytes = Math.max(0, maxBytes);
+		evict();
+	}
+
+
+	/**
+	 * Loads a document, from the cache if the file did not change since it was
+	 * parsed last.
+	 *
+	 * @param file
+	 * @param readerConfig
+	 *            everything that changes how the file is parsed
+	 * @param prologBuffer
+	 *            receives the prolog. null if the prolog is not processed.
+	 * @param loader
+	 *            parses the file on a cache miss
+	 * @return a copy of the document, owned by the caller
+	 * @throws DocumentException
+	 * @throws IOException
+	 */
+	public Document load(
+		File file,
+		String readerConfig,
+		StringBuilder prologBuffer,
+		Loader loader
+	) throws DocumentException, IOException
+	{
+		return load(file, readerConfig, prologBuffer, loader, true);
+	}
+
+
+	/**
+	 * Same as {@link #load(File, String, StringBuilder, Loader)}, but does not
+	 * copy the document.
+	 *
+	 * @return the cached document. MUST NOT be changed, it is shared.
+	 */
+	public Document loadShared(
+		File file,
+		String readerConfig,
+		StringBuilder prologBuffer,
+		Loader loader
+	) throws DocumentException, IOException
+	{
+		return load(file, readerConfig, prologBuffer, loader, false);
+	}
+
+
+	private Document load(
+		File file,
+		String readerConfig,
+		StringBuilder prologBuffer,
+		Loader loader,
+		boolean copy
+	) throws DocumentException, IOException
+	{
+		List<?> stamp;
+		try
+		{
+			stamp = stamp(file);
+		}
+		catch (IOException e)
+		{
+			// === SUCCESS (missing, the loader reports it) ===
+			return loader.load(file, prologBuffer);
+		}
+		var weight = (Long) stamp.get(0) * MEMORY_PER_FILE_BYTE;
+
+		// NOTE: reading the prolog changes how a file without XML declaration
+		// is parsed
+		var key = String
+			.join(
+				"|",
+				file.getCanonicalPath(),
+				readerConfig,
+				String.valueOf(prologBuffer != null)
+			);
+
+		Entry entry;
+		synchronized (this)
+		{
+			if (weight > f_maxBytes)
+				// === SUCCESS (too large, not cached) ===
+				return loader.load(file, prologBuffer);
+
+			entry = f_entries.get(key);
+			if (entry == null)
+			{
+				entry = new Entry();
+				f_entries.put(key, entry);
+			}
+		}
+
+		// NOTE: documents are cloned while locked, dom4j creates content
+		// lists lazily even while reading
+		synchronized (entry)
+		{
+			if (entry.f_document == null || !stamp.equals(entry.f_stamp))
+			{
+				var entryProlog = prologBuffer != null
+					? new StringBuilder()
+					: null;
+				try
+				{
+					entry.f_document = loader.load(file, entryProlog);
+					materialize(entry.f_document);
+				}
+				catch (DocumentException | IOException | RuntimeException e)
+				{
+					// === FAIL ===
+					remove(key, entry);
+					throw e;
+				}
+				entry.f_prolog = entryProlog != null
+					? entryProlog.toString()
+					: null;
+				entry.f_stamp  = stamp;
+
+				resize(key, entry, weight);
+			}
+			else
+			{
+				synchronized (this)
+				{
+					f_hits++;
+				}
+			}
+
+			if (prologBuffer != null)
+				prologBuffer.append(entry.f_prolog);
+
+			return copy
+				? (Document) entry.f_document.clone()
+				: entry.f_document;
+		}
+	}
+
+
+	/**
+	 * Drops all entries, e.g. at the end of the build.
+	 */
+	public synchronized void clear()
+	{
+		f_entries.clear();
+		f_usedBytes = 0;
+	}
+
+
+	public synchronized long getHits()
+	{
+		return f_hits;
+	}
+
+
+	public synchronized long getMisses()
+	{
+		return f_misses;
+	}
+
+
+	public synchronized long getUsedBytes()
+	{
+		return f_usedBytes;
+	}
+
+
+	private synchronized void resize(
+		String key,
+		Entry entry,
+		long weight
+	)
+	{
+		f_misses++;
+
+		if (f_entries.get(key) != entry)
+			// === SUCCESS (evicted while loading) ===
+			return;
+
+		f_usedBytes    += weight - entry.f_weight;
+		entry.f_weight  = weight;
+
+		evict();
+	}
+
+
+	private synchronized void remove(
+		String key,
+		Entry entry
+	)
+	{
+		if (f_entries.get(key) != entry)
+			// === SUCCESS (already gone) ===
+			return;
+
+		f_entries.remove(key);
+		f_usedBytes -= entry.f_weight;
+	}
+
+
+	/**
+	 * @return what identifies the current content of the file, without
+	 *         reading it. The file key and the change time are null, where
+	 *         the file system does not have them.
+	 */
+	private static List<?> stamp(
+		File file
+	) throws IOException
+	{
+		var path       = file.toPath();
+		var attributes = Files
+			.readAttributes(path, BasicFileAttributes.class);
+		var changed    = UNIX
+			? Files.getAttribute(path, "unix:ctime")
+			: null;
+
+		// === SUCCESS ===
+		return Arrays
+			.asList(
+				attributes.size(),
+				attributes.lastModifiedTime(),
+				attributes.fileKey(),
+				changed
+			);
+	}
+
+
+	/**
+	 * dom4j creates the content and attribute lists of elements lazily, even
+	 * while reading. Creates all of them up front, so any number of threads
+	 * can read a shared document.
+	 */
+	private static void materialize(
+		Branch branch
+	)
+	{
+		for (var node : branch.content())
+		{
+			if (node instanceof Element)
+			{
+				((Element) node).attributes();
+				materialize((Element) node);
+			}
+		}
+	}
+
+
+	/**
+	 * Removes least recently used entries until the budget is met.
+	 */
+	private void evict()
+	{
+		var iterator = f_entries.values().iterator();
+		while (f_usedBytes > f_maxBytes && iterator.hasNext())
+		{
+			var entry = iterator.next();
+			iterator.remove();
+			f_usedBytes -= entry.f_weight;
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.xml.sax.InputSource;
+
+
+/**
+ * Reads documents with one of the {@link ParserBackend}s. Not thread safe.
+ */
+interface DocumentReader
+{
+	/**
+	 * @param source
+	 *            a byte stream, a character stream or just a system id
+	 * @return
+	 * @throws DocumentException
+	 */
+	Document read(
+		InputSource source
+	) throws DocumentException;
+}
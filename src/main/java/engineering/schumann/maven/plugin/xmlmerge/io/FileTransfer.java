@@ -0,0 +1,309 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.ThreadLocalRandom;
+
+
+/**
+ * Copies, compares and digests files.
+ *
+ * Copies are done with {@link FileChannel#transferTo}, so the kernel moves the
+ * data without it passing through the heap.
+ *
+ * NOTE: files are never memory mapped. A mapping keeps a file from being
+ * deleted or replaced on Windows until it is garbage collected, and the files
+ * compared here are replaced or deleted right after.
+ */
+public class FileTransfer
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	private FileTransfer()
+	{
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Copies a file next to the target first and moves it into place, so
+	 * nobody ever sees a partial target. Keeps the modification time and the
+	 * permissions of the source, like FileUtils.copyFile does.
+	 *
+	 * @param source
+	 * @param target
+	 *            replaced, if it exists
+	 * @throws IOException
+	 */
+	public static void copy(
+		Path source,
+		Path target
+	) throws IOException
+	{
+		copy(source, target, true);
+	}
+
+
+	/**
+	 * Copies a file, unless the target already has the same content.
+	 *
+	 * @param source
+	 * @param target
+	 * @return true, if the target has been written
+	 * @throws IOException
+	 */
+	public static boolean copyIfChanged(
+		Path source,
+		Path target
+	) throws IOException
+	{
+		if (Files.isRegularFile(target) && contentEquals(source, target))
+			// === SUCCESS (nothing to do) ===
+			return false;
+
+		copy(source, target);
+
+		// === SUCCESS ===
+		return true;
+	}
+
+
+	/**
+	 * Replaces the target with a copy of a file, unless it already has the
+	 * same content. Unlike {@link #copyIfChanged}, the target is written like
+	 * an {@link AtomicOutputFile}: it gets the current time and keeps its own
+	 * permissions, so it never looks older than what was built from it.
+	 *
+	 * @param source
+	 * @param target
+	 * @return true, if the target has been written
+	 * @throws IOException
+	 */
+	public static boolean replaceIfChanged(
+		Path source,
+		Path target
+	) throws IOException
+	{
+		if (Files.isRegularFile(target) && contentEquals(source, target))
+			// === SUCCESS (nothing to do) ===
+			return false;
+
+		copy(source, target, false);
+
+		// === SUCCESS ===
+		return true;
+	}
+
+
+	private static void copy(
+		Path source,
+		Path target,
+		boolean keepSourceAttributes
+	) throws IOException
+	{
+		Files.createDirectories(target.toAbsolutePath().getParent());
+
+		var tempFile = createTempFile(target);
+		try
+		{
+			transfer(source, tempFile);
+			if (keepSourceAttributes)
+			{
+				copyPermissions(source, tempFile);
+				Files
+					.setLastModifiedTime(
+						tempFile,
+						Files.getLastModifiedTime(source)
+					);
+			}
+			else
+				copyPermissions(target, tempFile);
+
+			try
+			{
+				Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+
+	/**
+	 * Copies the content of a file channel to channel.
+	 *
+	 * @param source
+	 * @param target
+	 *            created or truncated
+	 * @throws IOException
+	 */
+	public static void transfer(
+		Path source,
+		Path target
+	) throws IOException
+	{
+		try (var in = FileChannel.open(source, StandardOpenOption.READ);
+			var out = FileChannel
+				.open(
+					target,
+					StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.WRITE
+				))
+		{
+			var size     = in.size();
+			var position = 0L;
+			// NOTE: transferTo may transfer less than asked for
+			while (position < size)
+				position += in.transferTo(position, size - position, out);
+		}
+	}
+
+
+	/**
+	 * @param file1
+	 * @param file2
+	 * @return true, if both files have the same content
+	 * @throws IOException
+	 */
+	public static boolean contentEquals(
+		Path file1,
+		Path file2
+	) throws IOException
+	{
+		var size = Files.size(file1);
+		if (size != Files.size(file2))
+			// === SUCCESS ===
+			return false;
+
+		// === SUCCESS ===
+		return Files.mismatch(file1, file2) == -1;
+	}
+
+
+	/**
+	 * Adds the content of a file to a digest.
+	 *
+	 * @param file
+	 * @param digest
+	 * @throws IOException
+	 */
+	public static void digest(
+		Path file,
+		MessageDigest digest
+	) throws IOException
+	{
+		try (var input = new DigestInputStream(
+			Files.newInputStream(file),
+			digest
+		))
+		{
+			var buffer = new byte[BUFFER_SIZE];
+			while (input.read(buffer) != -1)
+			{
+				// @INFO digested while read
+			}
+		}
+	}
+
+
+	/**
+	 * Creates an empty file next to the target, to be moved over it later.
+	 *
+	 * NOTE: unlike Files.createTempFile, which only lets the owner access the
+	 * file, it gets the permissions any new file gets, i.e. the umask applies.
+	 *
+	 * @param target
+	 * @return the file created
+	 * @throws IOException
+	 */
+	static Path createTempFile(
+		Path target
+	) throws IOException
+	{
+		var directory = target.toAbsolutePath().getParent();
+		while (true)
+		{
+			var tempFile = directory
+				.resolve(
+					"%s%d.tmp"
+						.formatted(
+							target.getFileName(),
+							ThreadLocalRandom.current().nextLong(Long.MAX_VALUE)
+						)
+				);
+			try
+			{
+				// === SUCCESS ===
+				return Files.createFile(tempFile);
+			}
+			catch (FileAlreadyExistsException e)
+			{
+				// @INFO try another name
+			}
+		}
+	}
+
+
+	/**
+	 * Gives a file the POSIX permissions of another one, e.g. of the file it
+	 * is about to replace. Does nothing if the other one does not exist or the
+	 * file system has no POSIX permissions.
+	 *
+	 * @param source
+	 * @param target
+	 * @throws IOException
+	 */
+	static void copyPermissions(
+		Path source,
+		Path target
+	) throws IOException
+	{
+		var sourceView = Files
+			.getFileAttributeView(source, PosixFileAttributeView.class);
+		if (sourceView == null || !Files.exists(source))
+			// === SUCCESS (nothing to copy) ===
+			return;
+
+		Files
+			.getFileAttributeView(target, PosixFileAttributeView.class)
+			.setPermissions(sourceView.readAttributes().permissions());
+	}
+}
@@ -0,0 +1,122 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.dom4j.io.OutputFormat;
+
+
+/**
+ * How merged documents are serialized.
+ */
+public enum OutputStyle
+{
+	/** re-indented, text trimmed. Easy to read, but slow on large outputs. */
+	PRETTY("pretty"),
+
+	/** no whitespace between elements, text trimmed */
+	COMPACT("compact"),
+
+	/** text and whitespace written as parsed, the fastest */
+	PRESERVE("preserve");
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final String f_name;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	private OutputStyle(
+		String name
+	)
+	{
+		f_name = name;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param name
+	 *            e.g. "pretty", case insensitive
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             if there is no such style
+	 */
+	public static OutputStyle forName(
+		String name
+	)
+	{
+		for (var style : values())
+			if (style.f_name.equalsIgnoreCase(name.trim()))
+				// === SUCCESS ===
+				return style;
+
+		// === FAIL ===
+		throw new IllegalArgumentException(
+			"Output format '%s' unknown, use one of %s"
+				.formatted(
+					name,
+					Arrays
+						.stream(values())
+						.map(OutputStyle::toString)
+						.collect(Collectors.joining(", "))
+				)
+		);
+	}
+
+
+	/**
+	 * @param encoding
+	 *            declared in the XML declaration
+	 * @return a new format, free to be changed
+	 */
+	public OutputFormat createFormat(
+		String encoding
+	)
+	{
+		OutputFormat format;
+		switch (this)
+		{
+			case PRETTY:
+				format = OutputFormat.createPrettyPrint();
+				break;
+
+			case COMPACT:
+				format = OutputFormat.createCompactFormat();
+				break;
+
+			default:
+				format = new OutputFormat();
+				break;
+		}
+		format.setEncoding(encoding);
+
+		return format;
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return f_name;
+	}
+}
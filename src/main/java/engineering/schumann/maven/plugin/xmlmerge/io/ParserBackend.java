@@ -0,0 +1,93 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+
+/**
+ * The parsers documents can be read with.
+ */
+public enum ParserBackend
+{
+	/** SAX parser found by JAXP on the plugin class path, e.g. Xerces */
+	SAX("sax"),
+
+	/** SAX parser built into the JDK */
+	JDK_SAX("jdk-sax"),
+
+	/** StAX parser built into the JDK */
+	STAX("stax"),
+
+	/** Woodstox, a high-throughput StAX parser */
+	WOODSTOX("woodstox");
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final String f_name;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	private ParserBackend(
+		String name
+	)
+	{
+		f_name = name;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param name
+	 *            e.g. "sax", case insensitive
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             if there is no such backend
+	 */
+	public static ParserBackend forName(
+		String name
+	)
+	{
+		for (var backend : values())
+			if (backend.f_name.equalsIgnoreCase(name.trim()))
+				// === SUCCESS ===
+				return backend;
+
+		// === FAIL ===
+		throw new IllegalArgumentException(
+			"Parser backend '%s' unknown, use one of %s"
+				.formatted(
+					name,
+					Arrays
+						.stream(values())
+						.map(ParserBackend::toString)
+						.collect(Collectors.joining(", "))
+				)
+		);
+	}
+
+
+	@Override
+	public String toString()
+	{
+		return f_name;
+	}
+}
@@ -0,0 +1,92 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.io.SAXReader;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+
+/**
+ * Reads documents with dom4j's SAXReader.
+ */
+class SaxDocumentReader
+	implements
+	DocumentReader
+{
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final SAXReader f_reader;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param builtIn
+	 *            true to use the SAX parser of the JDK, false to let JAXP look
+	 *            one up
+	 * @param ignoreComments
+	 * @param entityResolver
+	 * @throws IllegalStateException
+	 *             if the parser cannot be created
+	 */
+	SaxDocumentReader(
+		boolean builtIn,
+		boolean ignoreComments,
+		EntityResolver entityResolver
+	)
+	{
+		f_reader = new SAXReader();
+		f_reader.setIgnoreComments(ignoreComments);
+		f_reader.setEntityResolver(entityResolver);
+
+		if (builtIn)
+		{
+			try
+			{
+				var factory = SAXParserFactory.newDefaultInstance();
+				factory.setNamespaceAware(true);
+				f_reader.setXMLReader(factory.newSAXParser().getXMLReader());
+			}
+			catch (ParserConfigurationException | SAXException e)
+			{
+				// === FAIL ===
+				throw new IllegalStateException(
+					"Unable to create the SAX parser of the JDK",
+					e
+				);
+			}
+		}
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	@Override
+	public Document read(
+		InputSource source
+	) throws DocumentException
+	{
+		return f_reader.read(source);
+	}
+}
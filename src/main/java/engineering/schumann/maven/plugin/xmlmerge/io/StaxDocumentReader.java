@@ -0,0 +1,406 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.codehaus.stax2.XMLStreamReader2;
+import org.dom4j.Branch;
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.DocumentFactory;
+import org.dom4j.Element;
+import org.dom4j.QName;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import com.ctc.wstx.stax.WstxInputFactory;
+
+
+/**
+ * Reads documents with a StAX parser and builds the dom4j tree itself.
+ *
+ * Builds the same tree as SAXReader does: whitespace outside of the root
+ * element and ignorable whitespace are dropped, and only the name and ids of a
+ * DOCTYPE are kept, not its internal subset.
+ */
+class StaxDocumentReader
+	implements
+	DocumentReader
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	private static final String  REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+	/** name and external ids of a DOCTYPE declaration */
+	private static final Pattern DOCTYPE      = Pattern
+		.compile(
+			"<!DOCTYPE\\s+([^\\s\\[>]+)"
+				+ "(?:\\s+PUBLIC\\s+[\"']([^\"']*)[\"']\\s+[\"']([^\"']*)[\"']"
+				+ "|\\s+SYSTEM\\s+[\"']([^\"']*)[\"'])?"
+		);
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final XMLInputFactory f_inputFactory;
+
+	private final DocumentFactory f_documentFactory;
+
+	private final boolean         f_ignoreComments;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param woodstox
+	 *            true to use Woodstox, false to use the StAX parser of the JDK
+	 * @param ignoreComments
+	 * @param entityResolver
+	 */
+	StaxDocumentReader(
+		boolean woodstox,
+		boolean ignoreComments,
+		EntityResolver entityResolver
+	)
+	{
+		f_inputFactory    = createInputFactory(woodstox, entityResolver);
+		f_documentFactory = DocumentFactory.getInstance();
+		f_ignoreComments  = ignoreComments;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * NOTE: factories are not thread safe either, e.g. the one of the JDK
+	 * reuses its last reader.
+	 *
+	 * @param woodstox
+	 *            true to use Woodstox, false to use the StAX parser of the JDK
+	 * @param entityResolver
+	 * @return a new factory, which resolves entities like the SAX parsers do
+	 */
+	static XMLInputFactory createInputFactory(
+		boolean woodstox,
+		EntityResolver entityResolver
+	)
+	{
+		var inputFactory = woodstox
+			? new WstxInputFactory()
+			: XMLInputFactory.newDefaultFactory();
+		inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		inputFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
+		inputFactory
+			.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, true);
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+		inputFactory
+			.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, true);
+		inputFactory.setXMLResolver(toXmlResolver(entityResolver));
+		if (!woodstox)
+			// NOTE: the JDK reports CDATA sections as characters otherwise
+			inputFactory.setProperty(REPORT_CDATA, true);
+
+		return inputFactory;
+	}
+
+
+	@Override
+	public Document read(
+		InputSource source
+	) throws DocumentException
+	{
+		var systemId = source.getSystemId();
+		try
+		{
+			if (source.getByteStream() != null)
+				// === SUCCESS ===
+				return build(
+					f_inputFactory
+						.createXMLStreamReader(systemId, source.getByteStream())
+				);
+
+			if (source.getCharacterStream() != null)
+				// === SUCCESS ===
+				return build(
+					f_inputFactory
+						.createXMLStreamReader(
+							systemId,
+							source.getCharacterStream()
+						)
+				);
+
+			try (var input = new URL(systemId).openStream())
+			{
+				// === SUCCESS ===
+				return build(f_inputFactory.createXMLStreamReader(systemId, input));
+			}
+		}
+		catch (XMLStreamException | IOException e)
+		{
+			// === FAIL ===
+			throw new DocumentException(
+				"Error reading %s: %s".formatted(systemId, e.getMessage()),
+				e
+			);
+		}
+	}
+
+
+	private Document build(
+		XMLStreamReader reader
+	) throws XMLStreamException
+	{
+		try
+		{
+			var     document = f_documentFactory.createDocument();
+			Element current  = null;
+
+			// NOTE: the reader starts on START_DOCUMENT, next() never
+			// returns it. The encoding declared wins over the one detected.
+			var     encoding = reader.getCharacterEncodingScheme();
+			document
+				.setXMLEncoding(
+					encoding != null
+						? encoding
+						: reader.getEncoding()
+				);
+
+			while (reader.hasNext())
+			{
+				switch (reader.next())
+				{
+					case XMLStreamConstants.START_ELEMENT:
+						var element = createElement(reader);
+						if (current == null)
+							document.add(element);
+						else
+							current.add(element);
+						current = element;
+						break;
+
+					case XMLStreamConstants.END_ELEMENT:
+						current = current.getParent();
+						break;
+
+					case XMLStreamConstants.CHARACTERS:
+						// NOTE: whitespace outside of the root is not content
+						if (current != null)
+							current.addText(reader.getText());
+						break;
+
+					case XMLStreamConstants.CDATA:
+						if (current != null)
+							current.addCDATA(reader.getText());
+						break;
+
+					case XMLStreamConstants.COMMENT:
+						if (!f_ignoreComments)
+							branchOf(document, current)
+								.add(
+									f_documentFactory
+										.createComment(reader.getText())
+								);
+						break;
+
+					case XMLStreamConstants.PROCESSING_INSTRUCTION:
+						branchOf(document, current)
+							.add(
+								f_documentFactory
+									.createProcessingInstruction(
+										reader.getPITarget(),
+										reader.getPIData()
+									)
+							);
+						break;
+
+					case XMLStreamConstants.DTD:
+						addDocType(document, reader);
+						break;
+
+					default:
+						// @INFO ignorable whitespace, resolved entities
+						break;
+				}
+			}
+
+			return document;
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+
+	private Element createElement(
+		XMLStreamReader reader
+	)
+	{
+		var element = f_documentFactory
+			.createElement(
+				createQName(
+					reader.getLocalName(),
+					reader.getPrefix(),
+					reader.getNamespaceURI()
+				)
+			);
+
+		for (var i = 0; i < reader.getNamespaceCount(); i++)
+		{
+			var prefix = reader.getNamespacePrefix(i);
+			element
+				.addNamespace(
+					prefix != null
+						? prefix
+						: "",
+					reader.getNamespaceURI(i)
+				);
+		}
+
+		for (var i = 0; i < reader.getAttributeCount(); i++)
+			element
+				.addAttribute(
+					createQName(
+						reader.getAttributeLocalName(i),
+						reader.getAttributePrefix(i),
+						reader.getAttributeNamespace(i)
+					),
+					reader.getAttributeValue(i)
+				);
+
+		return element;
+	}
+
+
+	private QName createQName(
+		String localName,
+		String prefix,
+		String namespaceUri
+	)
+	{
+		return f_documentFactory
+			.createQName(
+				localName,
+				prefix != null
+					? prefix
+					: "",
+				namespaceUri != null
+					? namespaceUri
+					: ""
+			);
+	}
+
+
+	private static Branch branchOf(
+		Document document,
+		Element current
+	)
+	{
+		return current != null
+			? current
+			: document;
+	}
+
+
+	private static void addDocType(
+		Document document,
+		XMLStreamReader reader
+	) throws XMLStreamException
+	{
+		if (reader instanceof XMLStreamReader2)
+		{
+			// NOTE: Woodstox only reports the internal subset as text
+			var info = ((XMLStreamReader2) reader).getDTDInfo();
+			document
+				.addDocType(
+					info.getDTDRootName(),
+					info.getDTDPublicId(),
+					info.getDTDSystemId()
+				);
+
+			// === SUCCESS ===
+			return;
+		}
+
+		var matcher = DOCTYPE.matcher(reader.getText());
+		if (!matcher.find())
+			// === SUCCESS (nothing to keep) ===
+			return;
+
+		document
+			.addDocType(
+				matcher.group(1),
+				matcher.group(2),
+				matcher.group(3) != null
+					? matcher.group(3)
+					: matcher.group(4)
+			);
+	}
+
+
+	/**
+	 * Lets StAX parsers resolve entities like the SAX parsers do.
+	 */
+	private static XMLResolver toXmlResolver(
+		EntityResolver entityResolver
+	)
+	{
+		return (publicId, systemId, baseUri, namespace) -> {
+			try
+			{
+				var absoluteId = systemId;
+				if (systemId != null && baseUri != null)
+					absoluteId = URI.create(baseUri).resolve(systemId).toString();
+
+				var source = entityResolver.resolveEntity(publicId, absoluteId);
+				if (source == null)
+					// === SUCCESS (let the parser load it) ===
+					return null;
+
+				return source.getByteStream() != null
+					? source.getByteStream()
+					: (InputStream) new ByteArrayInputStream(new byte[0]);
+			}
+			catch (SAXException | IOException | IllegalArgumentException e)
+			{
+				// === FAIL ===
+				throw new XMLStreamException(
+					"Unable to resolve entity " + systemId,
+					e
+				);
+			}
+		};
+	}
+}
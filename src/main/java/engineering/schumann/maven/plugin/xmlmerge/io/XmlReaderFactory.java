@@ -0,0 +1,296 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+
+/**
+ * Hands out configured readers, one per thread.
+ *
+ * Creating a reader looks up the parser factory and creates a new parser, which
+ * costs more than parsing a small file. Readers are not thread safe, so each
+ * thread reuses its own. The {@link ParserBackend} decides which parser is
+ * used.
+ *
+ * External entities, e.g. DTDs, are resolved from XML catalogs and loaded once
+ * per factory, and the factories derived from it.
+ *
+ * NOTE: a reader must not be used after it has been passed to another thread.
+ */
+public class XmlReaderFactory
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	/** reads comments, like a plain SAXReader */
+	public static final XmlReaderFactory DEFAULT = new XmlReaderFactory(false);
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final boolean                     f_ignoreComments;
+
+	private final List<File>                  f_catalogs;
+
+	private final boolean                     f_loadExternalDtds;
+
+	private final ParserBackend               f_parserBackend;
+
+	private final EntityResolver              f_entityResolver;
+
+	private final ThreadLocal<DocumentReader> f_readers;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	public XmlReaderFactory(
+		boolean ignoreComments
+	)
+	{
+		this(ignoreComments, List.of(), true);
+	}
+
+
+	/**
+	 * @param ignoreComments
+	 * @param catalogs
+	 *            OASIS XML catalog files used to resolve DTDs and other
+	 *            external entities. May be empty.
+	 * @param loadExternalDtds
+	 *            false to never load external entities not found in a catalog
+	 */
+	public XmlReaderFactory(
+		boolean ignoreComments,
+		List<File> catalogs,
+		boolean loadExternalDtds
+	)
+	{
+		this(ignoreComments, catalogs, loadExternalDtds, ParserBackend.SAX);
+	}
+
+
+	/**
+	 * @param ignoreComments
+	 * @param catalogs
+	 *            OASIS XML catalog files used to resolve DTDs and other
+	 *            external entities. May be empty.
+	 * @param loadExternalDtds
+	 *            false to never load external entities not found in a catalog
+	 * @param parserBackend
+	 */
+	public XmlReaderFactory(
+		boolean ignoreComments,
+		List<File> catalogs,
+		boolean loadExternalDtds,
+		ParserBackend parserBackend
+	)
+	{
+		this(
+			ignoreComments,
+			List.copyOf(catalogs),
+			loadExternalDtds,
+			parserBackend,
+			new CachingEntityResolver(catalogs, loadExternalDtds)
+		);
+	}
+
+
+	private XmlReaderFactory(
+		boolean ignoreComments,
+		List<File> catalogs,
+		boolean loadExternalDtds,
+		ParserBackend parserBackend,
+		EntityResolver entityResolver
+	)
+	{
+		f_ignoreComments   = ignoreComments;
+		f_catalogs         = catalogs;
+		f_loadExternalDtds = loadExternalDtds;
+		f_parserBackend    = parserBackend;
+		// NOTE: resolvers are thread safe, all readers share one
+		f_entityResolver   = entityResolver;
+		f_readers          = ThreadLocal.withInitial(this::createReader);
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Reads a file with the reader of the current thread.
+	 *
+	 * @param file
+	 * @return
+	 * @throws DocumentException
+	 */
+	public Document read(
+		File file
+	) throws DocumentException
+	{
+		// NOTE: opened by the parser, never memory mapped: a mapping keeps the
+		// file from being deleted or replaced on Windows until it is collected
+		return f_readers.get().read(new InputSource(file.toURI().toString()));
+	}
+
+
+	/**
+	 * Reads a stream with the reader of the current thread.
+	 *
+	 * @param input
+	 *            NOT closed
+	 * @param systemId
+	 *            to resolve relative entities against. May be null.
+	 * @return
+	 * @throws DocumentException
+	 */
+	public Document read(
+		InputStream input,
+		String systemId
+	) throws DocumentException
+	{
+		var source = new InputSource(input);
+		source.setSystemId(systemId);
+
+		return f_readers.get().read(source);
+	}
+
+
+	/**
+	 * Reads characters with the reader of the current thread.
+	 *
+	 * @param input
+	 *            NOT closed
+	 * @return
+	 * @throws DocumentException
+	 */
+	public Document read(
+		Reader input
+	) throws DocumentException
+	{
+		return f_readers.get().read(new InputSource(input));
+	}
+
+
+	/**
+	 * For callers that stream documents instead of reading them, e.g. to
+	 * merge them without building a tree.
+	 *
+	 * NOTE: the factory is not thread safe. Comments are left to the caller.
+	 *
+	 * @return a new StAX factory, which resolves entities like the readers of
+	 *         this factory. Woodstox for backend "woodstox", the StAX parser
+	 *         of the JDK for all others.
+	 */
+	public XMLInputFactory createInputFactory()
+	{
+		return StaxDocumentReader
+			.createInputFactory(
+				f_parserBackend == ParserBackend.WOODSTOX,
+				f_entityResolver
+			);
+	}
+
+
+	/**
+	 * @param ignoreComments
+	 * @return a factory configured like this one, but for comments. It shares
+	 *         the entities already loaded with this one.
+	 */
+	public XmlReaderFactory withIgnoreComments(
+		boolean ignoreComments
+	)
+	{
+		if (ignoreComments == f_ignoreComments)
+			// === SUCCESS (unchanged) ===
+			return this;
+
+		return new XmlReaderFactory(
+			ignoreComments,
+			f_catalogs,
+			f_loadExternalDtds,
+			f_parserBackend,
+			f_entityResolver
+		);
+	}
+
+
+	/**
+	 * @return everything that changes how documents are read, e.g. to key
+	 *         caches of parsed documents
+	 */
+	public String getConfiguration()
+	{
+		return String
+			.join(
+				";",
+				"ignoreComments=" + f_ignoreComments,
+				"catalogs=" + f_catalogs,
+				"loadExternalDtds=" + f_loadExternalDtds,
+				"parserBackend=" + f_parserBackend
+			);
+	}
+
+
+	private DocumentReader createReader()
+	{
+		// @INFO all parse sites share this configuration
+		switch (f_parserBackend)
+		{
+			case JDK_SAX:
+				return new SaxDocumentReader(
+					true,
+					f_ignoreComments,
+					f_entityResolver
+				);
+
+			case STAX:
+				return new StaxDocumentReader(
+					false,
+					f_ignoreComments,
+					f_entityResolver
+				);
+
+			case WOODSTOX:
+				return new StaxDocumentReader(
+					true,
+					f_ignoreComments,
+					f_entityResolver
+				);
+
+			default:
+				return new SaxDocumentReader(
+					false,
+					f_ignoreComments,
+					f_entityResolver
+				);
+		}
+	}
+}
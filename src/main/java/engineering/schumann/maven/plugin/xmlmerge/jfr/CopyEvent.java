@@ -0,0 +1,16 @@
+package engineering.schumann.maven.plugin.xmlmerge.jfr;
+
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("engineering.schumann.xmlmerger.Copy")
+@Label("Copy File")
+@Description("Copying a file, e.g. a file group of a single file")
+public class CopyEvent
+	extends
+	XmlMergerEvent
+{
+}
@@ -0,0 +1,16 @@
+package engineering.schumann.maven.plugin.xmlmerge.jfr;
+
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("engineering.schumann.xmlmerger.Merge")
+@Label("Merge XML")
+@Description("Merging the documents of a file group")
+public class MergeEvent
+	extends
+	XmlMergerEvent
+{
+}
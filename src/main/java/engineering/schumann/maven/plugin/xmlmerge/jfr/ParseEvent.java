@@ -0,0 +1,16 @@
+package engineering.schumann.maven.plugin.xmlmerge.jfr;
+
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("engineering.schumann.xmlmerger.Parse")
+@Label("Parse XML")
+@Description("Reading and parsing a document")
+public class ParseEvent
+	extends
+	XmlMergerEvent
+{
+}
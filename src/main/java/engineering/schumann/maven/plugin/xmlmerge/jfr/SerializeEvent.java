@@ -0,0 +1,16 @@
+package engineering.schumann.maven.plugin.xmlmerge.jfr;
+
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("engineering.schumann.xmlmerger.Serialize")
+@Label("Serialize XML")
+@Description("Serializing a merged document")
+public class SerializeEvent
+	extends
+	XmlMergerEvent
+{
+}
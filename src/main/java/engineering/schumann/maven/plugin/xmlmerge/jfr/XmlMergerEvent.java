@@ -0,0 +1,95 @@
+package engineering.schumann.maven.plugin.xmlmerge.jfr;
+
+
+import java.io.File;
+import java.util.function.LongSupplier;
+
+import engineering.schumann.maven.plugin.xmlmerge.stats.ExecutionStats;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Java Flight Recorder event around one step of a merge, e.g. parsing a file.
+ *
+ * Use like
+ *
+ * <pre>
+ * var event = new ParseEvent();
+ * event.begin();
+ * ...
+ * event.finish(file, stats, mergeMode, file::length);
+ * </pre>
+ *
+ * Costs next to nothing while no recording has the event enabled: nothing is
+ * looked up and no field is set unless the event is committed.
+ */
+@Category({ "Maven", "XML Merger" })
+@StackTrace(false)
+public abstract class XmlMergerEvent
+	extends
+	Event
+{
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	@Label("Path")
+	@Description("The file read or written")
+	String path;
+
+	@Label("File Group")
+	String fileGroup;
+
+	@Label("Merge Mode")
+	String mergeMode;
+
+	@Label("Size")
+	@DataAmount
+	long   bytes;
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Ends the event and commits it, if it is recorded.
+	 *
+	 * @param file
+	 * @param stats
+	 *            knows the file group of the file
+	 * @param mergeMode
+	 * @param bytes
+	 *            only asked for if the event is committed
+	 */
+	public void finish(
+		File file,
+		ExecutionStats stats,
+		String mergeMode,
+		LongSupplier bytes
+	)
+	{
+		end();
+		if (!shouldCommit())
+			// === SUCCESS (not recorded) ===
+			return;
+
+		this.path      = file.getAbsolutePath();
+		this.fileGroup = stats.getGroup(file);
+		this.mergeMode = mergeMode;
+		this.bytes     = bytes.getAsLong();
+
+		commit();
+	}
+}
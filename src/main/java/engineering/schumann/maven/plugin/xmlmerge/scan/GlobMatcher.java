@@ -0,0 +1,318 @@
+package engineering.schumann.maven.plugin.xmlmerge.scan;
+
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+
+/**
+ * Matches relative paths against a set of Ant-style patterns, e.g.
+ * "**&#47;target/**" or "spring/*-context.xml".
+ *
+ * "*" and "?" match within a path segment, "**" matches any number of
+ * segments. A pattern ending with "/" is short for ".../**". All patterns are
+ * compiled into one trie of path segments, so a path is matched against all of
+ * them in a single pass. Literal segments are looked up by hash, only segments
+ * with wildcards use a regular expression.
+ *
+ * Immutable and thread safe.
+ */
+public class GlobMatcher
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	private static final String ANY_PATH = "**";
+
+
+	/*
+	 * ====================
+	 *
+	 * TYPES
+	 *
+	 * ====================
+	 */
+	private static final class Node
+	{
+		private final Map<String, Node>     f_literals  = new HashMap<>();
+
+		/** by glob, so equal segments of several patterns share a node */
+		private final Map<String, Wildcard> f_wildcards = new LinkedHashMap<>();
+
+		/** the node after a "**" segment. null if there is none. */
+		private Node                        f_anyPath;
+
+		/** reached by "**", i.e. stays active for every further segment */
+		private boolean                     f_recursive;
+
+		/** a pattern ends here */
+		private boolean                     f_terminal;
+
+
+		private boolean hasChildren()
+		{
+			return f_recursive
+				|| f_anyPath != null
+				|| !f_literals.isEmpty()
+				|| !f_wildcards.isEmpty();
+		}
+	}
+
+
+	private static final class Wildcard
+	{
+		private final Pattern f_pattern;
+
+		private final Node    f_node = new Node();
+
+
+		private Wildcard(
+			String glob
+		)
+		{
+			f_pattern = toPattern(glob);
+		}
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final Node    f_root = new Node();
+
+	private final boolean f_empty;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param patterns
+	 *            Ant-style patterns, using "/" or "\" as separator
+	 */
+	public GlobMatcher(
+		List<String> patterns
+	)
+	{
+		for (var pattern : patterns)
+			add(pattern);
+
+		f_empty = patterns.isEmpty();
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * @return true, if there are no patterns, i.e. nothing matches
+	 */
+	public boolean isEmpty()
+	{
+		return f_empty;
+	}
+
+
+	/**
+	 * @param relativePath
+	 * @return true, if one of the patterns matches the path
+	 */
+	public boolean matches(
+		Path relativePath
+	)
+	{
+		for (var node : walk(relativePath))
+			if (node.f_terminal)
+				// === SUCCESS ===
+				return true;
+
+		return false;
+	}
+
+
+	/**
+	 * @param relativeDirectory
+	 * @return true, if one of the patterns matches every path below the
+	 *         directory, e.g. "**&#47;target/**" for "module/target"
+	 */
+	public boolean matchesAllBelow(
+		Path relativeDirectory
+	)
+	{
+		for (var node : walk(relativeDirectory))
+			if (node.f_recursive && node.f_terminal)
+				// === SUCCESS ===
+				return true;
+
+		return false;
+	}
+
+
+	/**
+	 * @param relativeDirectory
+	 * @return false, if no path below the directory can match any pattern
+	 */
+	public boolean matchesAnyBelow(
+		Path relativeDirectory
+	)
+	{
+		for (var node : walk(relativeDirectory))
+			if (node.hasChildren())
+				// === SUCCESS ===
+				return true;
+
+		return false;
+	}
+
+
+	/**
+	 * @return the nodes active after matching all segments of the path
+	 */
+	private List<Node> walk(
+		Path relativePath
+	)
+	{
+		var active = new ArrayList<Node>();
+		activate(active, f_root);
+
+		for (var i = 0; i < relativePath.getNameCount() && !active.isEmpty(); i++)
+		{
+			var segment = relativePath.getName(i).toString();
+			if (segment.isEmpty())
+				// NOTE: the empty path has one empty segment
+				continue;
+
+			var next = new ArrayList<Node>();
+			for (var node : active)
+			{
+				if (node.f_recursive)
+					activate(next, node);
+
+				var literal = node.f_literals.get(segment);
+				if (literal != null)
+					activate(next, literal);
+
+				for (var wildcard : node.f_wildcards.values())
+					if (wildcard.f_pattern.matcher(segment).matches())
+						activate(next, wildcard.f_node);
+			}
+			active = next;
+		}
+
+		return active;
+	}
+
+
+	/**
+	 * Adds the node and, since "**" matches no segment as well, the nodes
+	 * after "**".
+	 */
+	private static void activate(
+		List<Node> active,
+		Node node
+	)
+	{
+		// NOTE: few nodes are active at once, a list beats a set
+		while (node != null && !active.contains(node))
+		{
+			active.add(node);
+			node = node.f_anyPath;
+		}
+	}
+
+
+	private void add(
+		String pattern
+	)
+	{
+		var normalized = pattern.trim().replace('\\', '/');
+		if (normalized.endsWith("/"))
+			normalized += ANY_PATH;
+
+		var node = f_root;
+		for (var segment : normalized.split("/"))
+		{
+			if (segment.isEmpty())
+				// e.g. a leading or double "/"
+				continue;
+
+			if (segment.equals(ANY_PATH))
+			{
+				if (node.f_recursive)
+					// "**/**" is the same as "**"
+					continue;
+
+				if (node.f_anyPath == null)
+				{
+					node.f_anyPath             = new Node();
+					node.f_anyPath.f_recursive = true;
+				}
+				node = node.f_anyPath;
+			}
+			else if (segment.indexOf('*') < 0 && segment.indexOf('?') < 0)
+				node = node.f_literals.computeIfAbsent(segment, key -> new Node());
+			else
+				node = node.f_wildcards
+					.computeIfAbsent(segment, Wildcard::new).f_node;
+		}
+
+		node.f_terminal = true;
+	}
+
+
+	/**
+	 * @return a regular expression for a segment with "*" and "?"
+	 */
+	private static Pattern toPattern(
+		String glob
+	)
+	{
+		var regex   = new StringBuilder();
+		var literal = new StringBuilder();
+		for (var c : glob.toCharArray())
+		{
+			if (c != '*' && c != '?')
+			{
+				literal.append(c);
+				continue;
+			}
+
+			if (literal.length() > 0)
+			{
+				regex.append(Pattern.quote(literal.toString()));
+				literal.setLength(0);
+			}
+			regex
+				.append(
+					c == '*'
+						? ".*"
+						: "."
+				);
+		}
+		if (literal.length() > 0)
+			regex.append(Pattern.quote(literal.toString()));
+
+		return Pattern.compile(regex.toString(), Pattern.DOTALL);
+	}
+}
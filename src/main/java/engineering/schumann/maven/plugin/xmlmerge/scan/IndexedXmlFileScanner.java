@@ -0,0 +1,417 @@
+package engineering.schumann.maven.plugin.xmlmerge.scan;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+
+/**
+ * Finds the files to merge like {@link XmlFileScanner} does, but remembers
+ * what it found in every directory in an index file. Directories whose
+ * modification time did not change since the last scan are not listed again.
+ *
+ * The modification time of a directory changes whenever an entry is added,
+ * removed or renamed, which is all that matters for finding files. Every
+ * directory is still checked, so a scan costs one stat per directory plus a
+ * listing per changed directory, instead of a stat per file.
+ *
+ * The index is dropped, if the patterns or the directory scanned change.
+ * Directories modified shortly before they were listed are listed again next
+ * time, since a change within the same tick of the file system clock would go
+ * unnoticed otherwise.
+ */
+public class IndexedXmlFileScanner
+	extends
+	XmlFileScanner
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	private static final int  FORMAT_VERSION    = 1;
+
+	/** coarsest modification time resolution expected, e.g. FAT */
+	private static final long MTIME_GRANULARITY = 2000;
+
+	/** recorded for directories that must be listed next time */
+	private static final long UNKNOWN_MTIME     = -1;
+
+	/** marks subdirectories in the names of a directory's entries */
+	private static final char DIRECTORY_SUFFIX  = '/';
+
+
+	/*
+	 * ====================
+	 *
+	 * TYPES
+	 *
+	 * ====================
+	 */
+	private static final class DirectoryEntry
+	{
+		private final long         f_lastModified;
+
+		/**
+		 * files found and subdirectories not pruned, in the order listed.
+		 * Subdirectories end with a "/".
+		 */
+		private final List<String> f_names;
+
+
+		private DirectoryEntry(
+			long lastModified,
+			List<String> names
+		)
+		{
+			f_lastModified = lastModified;
+			f_names        = names;
+		}
+	}
+
+
+	/** the state of one scan */
+	private static final class Walk
+	{
+		private final Map<String, DirectoryEntry> f_previous;
+
+		private final Map<String, DirectoryEntry> f_current;
+
+		private final long                        f_startedAt;
+
+
+		private Walk(
+			Map<String, DirectoryEntry> previous,
+			Map<String, DirectoryEntry> current,
+			long startedAt
+		)
+		{
+			f_previous  = previous;
+			f_current   = current;
+			f_startedAt = startedAt;
+		}
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final File   f_indexFile;
+
+	private final String f_settings;
+
+	private int          f_listed;
+
+	private int          f_unchanged;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param fileNamePattern
+	 * @param excludes
+	 * @param globIncludes
+	 * @param globExcludes
+	 * @param indexFile
+	 *            where the index is kept between builds
+	 */
+	public IndexedXmlFileScanner(
+		String fileNamePattern,
+		List<String> excludes,
+		List<String> globIncludes,
+		List<String> globExcludes,
+		File indexFile
+	)
+	{
+		super(fileNamePattern, excludes, globIncludes, globExcludes);
+
+		f_indexFile = indexFile;
+		f_settings  = String
+			.join(
+				";",
+				"fileNamePattern=" + fileNamePattern,
+				"excludes=" + String.join(",", excludes),
+				"globIncludes=" + String.join(",", globIncludes),
+				"globExcludes=" + String.join(",", globExcludes)
+			);
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Walks the directory tree, using the index where nothing changed, and
+	 * hands every file found to the consumer. Files are found in the same
+	 * order as by {@link XmlFileScanner}. Updates the index file, if anything
+	 * changed.
+	 */
+	@Override
+	public void scan(
+		Path directory,
+		Consumer<Path> consumer
+	) throws IOException
+	{
+		f_listed    = 0;
+		f_unchanged = 0;
+
+		if (!Files.isDirectory(directory))
+			// === SUCCESS (nothing to find) ===
+			return;
+
+		var settings = f_settings + ";directory=" + directory.toAbsolutePath();
+		var previous = load(settings);
+		var current  = new LinkedHashMap<String, DirectoryEntry>();
+
+		walk(
+			directory,
+			directory,
+			new Walk(previous, current, System.currentTimeMillis()),
+			new ArrayList<>(),
+			consumer
+		);
+
+		if (f_listed > 0 || current.size() != previous.size())
+			save(settings, current);
+	}
+
+
+	/**
+	 * @return the number of directories listed by the last scan
+	 */
+	public int getListed()
+	{
+		return f_listed;
+	}
+
+
+	/**
+	 * @return the number of directories taken from the index by the last scan
+	 */
+	public int getUnchanged()
+	{
+		return f_unchanged;
+	}
+
+
+	private void walk(
+		Path root,
+		Path dir,
+		Walk walk,
+		List<Object> ancestors,
+		Consumer<Path> consumer
+	)
+	{
+		BasicFileAttributes attributes;
+		try
+		{
+			attributes = Files.readAttributes(dir, BasicFileAttributes.class);
+		}
+		catch (IOException e)
+		{
+			// === SUCCESS (unreadable, e.g. deleted) ===
+			return;
+		}
+
+		// NOTE: symlink loops are skipped, like the sequential scanner does
+		var dirKey = attributes.fileKey() != null
+			? attributes.fileKey()
+			: dir.toAbsolutePath().normalize();
+		if (ancestors.contains(dirKey))
+			// === SUCCESS (loop) ===
+			return;
+
+		var relativePath = root
+			.relativize(dir)
+			.toString()
+			.replace(File.separatorChar, '/');
+		var lastModified = attributes.lastModifiedTime().toMillis();
+
+		var entry = walk.f_previous.get(relativePath);
+		if (entry == null
+			|| entry.f_lastModified == UNKNOWN_MTIME
+			|| entry.f_lastModified != lastModified)
+		{
+			entry = list(root, dir, lastModified, walk.f_startedAt);
+			f_listed++;
+		}
+		else
+			f_unchanged++;
+		walk.f_current.put(relativePath, entry);
+
+		ancestors.add(dirKey);
+		for (var name : entry.f_names)
+		{
+			if (name.charAt(name.length() - 1) == DIRECTORY_SUFFIX)
+				walk(
+					root,
+					dir.resolve(name.substring(0, name.length() - 1)),
+					walk,
+					ancestors,
+					consumer
+				);
+			else
+				consumer.accept(dir.resolve(name));
+		}
+		ancestors.remove(ancestors.size() - 1);
+	}
+
+
+	/**
+	 * @return the files found and subdirectories not pruned, in the order
+	 *         listed
+	 */
+	private DirectoryEntry list(
+		Path root,
+		Path dir,
+		long lastModified,
+		long startedAt
+	)
+	{
+		// NOTE: may have changed again within the same tick while listing
+		var recorded = lastModified >= startedAt - MTIME_GRANULARITY
+			? UNKNOWN_MTIME
+			: lastModified;
+
+		var names = new ArrayList<String>();
+		try (var stream = Files.newDirectoryStream(dir))
+		{
+			for (var child : stream)
+			{
+				BasicFileAttributes attributes;
+				try
+				{
+					attributes = Files
+						.readAttributes(child, BasicFileAttributes.class);
+				}
+				catch (IOException e)
+				{
+					// unreadable, e.g. a dangling symlink
+					continue;
+				}
+
+				var name = child.getFileName().toString();
+				if (attributes.isDirectory())
+				{
+					if (!isExcludedDirectory(root, child))
+						names.add(name + DIRECTORY_SUFFIX);
+				}
+				else if (isMatch(root, child))
+					names.add(name);
+			}
+		}
+		catch (IOException e)
+		{
+			// === SUCCESS (unreadable, listed again next time) ===
+			return new DirectoryEntry(UNKNOWN_MTIME, List.of());
+		}
+
+		// === SUCCESS ===
+		return new DirectoryEntry(recorded, names);
+	}
+
+
+	/**
+	 * @return the directories of the index, empty if there is none or it was
+	 *         written with other settings
+	 */
+	private Map<String, DirectoryEntry> load(
+		String settings
+	)
+	{
+		var entries = new HashMap<String, DirectoryEntry>();
+		if (!f_indexFile.isFile())
+			// === SUCCESS (none) ===
+			return entries;
+
+		try (
+			var input = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(f_indexFile))
+			)
+		)
+		{
+			if (input.readInt() != FORMAT_VERSION
+				|| !input.readUTF().equals(settings))
+				// === SUCCESS (outdated) ===
+				return entries;
+
+			var directoryCount = input.readInt();
+			for (var i = 0; i < directoryCount; i++)
+			{
+				var relativePath = input.readUTF();
+				var lastModified = input.readLong();
+				var nameCount    = input.readInt();
+				var names        = new ArrayList<String>(nameCount);
+				for (var j = 0; j < nameCount; j++)
+					names.add(input.readUTF());
+
+				entries.put(relativePath, new DirectoryEntry(lastModified, names));
+			}
+
+			// === SUCCESS ===
+			return entries;
+		}
+		catch (IOException e)
+		{
+			// === SUCCESS (unreadable, e.g. truncated) ===
+			return new HashMap<>();
+		}
+	}
+
+
+	private void save(
+		String settings,
+		Map<String, DirectoryEntry> entries
+	) throws IOException
+	{
+		f_indexFile.getParentFile().mkdirs();
+		try (
+			var output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(f_indexFile))
+			)
+		)
+		{
+			output.writeInt(FORMAT_VERSION);
+			output.writeUTF(settings);
+			output.writeInt(entries.size());
+			for (var entry : entries.entrySet())
+			{
+				output.writeUTF(entry.getKey());
+				output.writeLong(entry.getValue().f_lastModified);
+				output.writeInt(entry.getValue().f_names.size());
+				for (var name : entry.getValue().f_names)
+					output.writeUTF(name);
+			}
+		}
+	}
+}
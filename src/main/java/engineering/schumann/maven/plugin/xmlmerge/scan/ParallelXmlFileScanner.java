@@ -0,0 +1,232 @@
+package engineering.schumann.maven.plugin.xmlmerge.scan;
+
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+
+/**
+ * Finds the files to merge with several threads, one task per directory. Meant
+ * for large trees on slow, e.g. network backed, file systems, where most of the
+ * time is spent waiting for metadata.
+ *
+ * Files and excludes match like they do for {@link XmlFileScanner}. The order
+ * does not depend on the file system or on timing: entries of a directory are
+ * sorted by name and the tree is walked depth first.
+ */
+public class ParallelXmlFileScanner
+	extends
+	XmlFileScanner
+{
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final int f_parallelism;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param fileNamePattern
+	 * @param excludes
+	 * @param globIncludes
+	 * @param globExcludes
+	 * @param parallelism
+	 *            number of threads listing directories
+	 */
+	public ParallelXmlFileScanner(
+		String fileNamePattern,
+		List<String> excludes,
+		List<String> globIncludes,
+		List<String> globExcludes,
+		int parallelism
+	)
+	{
+		super(fileNamePattern, excludes, globIncludes, globExcludes);
+
+		f_parallelism = parallelism;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Walks the directory tree and hands every file found to the consumer, in
+	 * order, once the whole tree has been walked. The consumer is called on
+	 * the calling thread.
+	 */
+	@Override
+	public void scan(
+		Path directory,
+		Consumer<Path> consumer
+	) throws IOException
+	{
+		if (!Files.isDirectory(directory))
+			// === SUCCESS (nothing to find) ===
+			return;
+
+		var pool = new ForkJoinPool(f_parallelism);
+		try
+		{
+			pool
+				.invoke(
+					new DirectoryTask(
+						directory,
+						directory,
+						List.of(keyOf(directory))
+					)
+				)
+				.forEach(consumer);
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+
+	/**
+	 * @return identifies a directory, however it is reached
+	 */
+	private static Object keyOf(
+		Path directory
+	) throws IOException
+	{
+		var key = Files
+			.readAttributes(directory, BasicFileAttributes.class)
+			.fileKey();
+
+		return key != null
+			? key
+			: directory.toRealPath();
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * TYPES
+	 *
+	 * ====================
+	 */
+	/**
+	 * Lists one directory, forks a task per subdirectory and joins their
+	 * results in order.
+	 */
+	private class DirectoryTask
+		extends
+		RecursiveTask<List<Path>>
+	{
+		private static final long  serialVersionUID = 1L;
+
+		/** the directory scanned */
+		private final Path         f_root;
+
+		private final Path         f_directory;
+
+		/** keys of this directory and its parents, to detect symlink loops */
+		private final List<Object> f_ancestors;
+
+
+		private DirectoryTask(
+			Path root,
+			Path directory,
+			List<Object> ancestors
+		)
+		{
+			f_root      = root;
+			f_directory = directory;
+			f_ancestors = ancestors;
+		}
+
+
+		@Override
+		protected List<Path> compute()
+		{
+			// NOTE: unreadable entries and symlink loops are skipped, like the
+			// sequential scanner does
+			var entries = new ArrayList<Path>();
+			try (var stream = Files.newDirectoryStream(f_directory))
+			{
+				stream.forEach(entries::add);
+			}
+			catch (IOException e)
+			{
+				// === SUCCESS (unreadable) ===
+				return List.of();
+			}
+			entries.sort(Comparator.comparing(entry -> entry.getFileName().toString()));
+
+			// NOTE: holds either a file found or a forked task
+			var slots = new ArrayList<Object>();
+			for (var entry : entries)
+			{
+				try
+				{
+					var attributes = Files
+						.readAttributes(entry, BasicFileAttributes.class);
+					if (!attributes.isDirectory())
+					{
+						if (isMatch(f_root, entry))
+							slots.add(entry);
+						continue;
+					}
+
+					if (isExcludedDirectory(f_root, entry))
+						// pruned
+						continue;
+
+					var key = attributes.fileKey() != null
+						? attributes.fileKey()
+						: entry.toRealPath();
+					if (f_ancestors.contains(key))
+						// symlink loop
+						continue;
+
+					var ancestors = new ArrayList<Object>(f_ancestors);
+					ancestors.add(key);
+
+					var task = new DirectoryTask(f_root, entry, ancestors);
+					task.fork();
+					slots.add(task);
+				}
+				catch (IOException e)
+				{
+					// unreadable, e.g. a dangling symlink
+					continue;
+				}
+			}
+
+			var found = new ArrayList<Path>();
+			for (var slot : slots)
+				if (slot instanceof DirectoryTask)
+					found.addAll(((DirectoryTask) slot).join());
+				else
+					found.add((Path) slot);
+
+			return found;
+		}
+	}
+}
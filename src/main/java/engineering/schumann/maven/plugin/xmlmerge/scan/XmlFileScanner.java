@@ -0,0 +1,266 @@
+package engineering.schumann.maven.plugin.xmlmerge.scan;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+
+/**
+ * Finds the files to merge in a directory tree.
+ *
+ * A file is found, if its name matches the file name pattern and none of the
+ * excludes. A directory is skipped with everything below it, if one of the
+ * excludes is found in its path, e.g. "/target$". All excludes are combined
+ * into a single pattern.
+ *
+ * On top of that, Ant-style includes and excludes can select files by their
+ * path relative to the directory scanned, see {@link GlobMatcher}. Directories
+ * are skipped, if an exclude matches everything below them or no include can
+ * match anything below them.
+ *
+ * Files are found in the order the file system lists them.
+ */
+public class XmlFileScanner
+{
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final Pattern     f_namePattern;
+
+	/** null if nothing is excluded */
+	private final Pattern     f_excludePattern;
+
+	/** null if everything is included */
+	private final GlobMatcher f_globIncludes;
+
+	/** null if nothing is excluded */
+	private final GlobMatcher f_globExcludes;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param fileNamePattern
+	 *            regular expression the whole file name must match
+	 * @param excludes
+	 *            regular expressions. Excludes files, if matching the whole
+	 *            name, and directories, if found in their path.
+	 */
+	public XmlFileScanner(
+		String fileNamePattern,
+		List<String> excludes
+	)
+	{
+		this(fileNamePattern, excludes, List.of(), List.of());
+	}
+
+
+	/**
+	 * @param fileNamePattern
+	 *            regular expression the whole file name must match
+	 * @param excludes
+	 *            regular expressions. Excludes files, if matching the whole
+	 *            name, and directories, if found in their path.
+	 * @param globIncludes
+	 *            Ant-style patterns, one of which the relative path of a file
+	 *            must match. Everything is included, if empty.
+	 * @param globExcludes
+	 *            Ant-style patterns of relative paths to skip
+	 */
+	public XmlFileScanner(
+		String fileNamePattern,
+		List<String> excludes,
+		List<String> globIncludes,
+		List<String> globExcludes
+	)
+	{
+		f_namePattern    = Pattern.compile(fileNamePattern);
+		f_globIncludes   = globIncludes.isEmpty()
+			? null
+			: new GlobMatcher(globIncludes);
+		f_globExcludes   = globExcludes.isEmpty()
+			? null
+			: new GlobMatcher(globExcludes);
+		f_excludePattern = excludes.isEmpty()
+			? null
+			: Pattern
+				.compile(
+					excludes
+						.stream()
+						.map(exclude -> "(?:" + exclude + ")")
+						.collect(Collectors.joining("|"))
+				);
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Walks the directory tree and hands every file found to the consumer, as
+	 * soon as it is found.
+	 *
+	 * @param directory
+	 *            never excluded itself. Nothing is found, if it does not
+	 *            exist.
+	 * @param consumer
+	 * @throws IOException
+	 */
+	public void scan(
+		Path directory,
+		Consumer<Path> consumer
+	) throws IOException
+	{
+		if (!Files.isDirectory(directory))
+			// === SUCCESS (nothing to find) ===
+			return;
+
+		Files
+			.walkFileTree(
+				directory,
+				EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+				Integer.MAX_VALUE,
+				new SimpleFileVisitor<Path>()
+				{
+					@Override
+					public FileVisitResult preVisitDirectory(
+						Path dir,
+						BasicFileAttributes attributes
+					)
+					{
+						if (!dir.equals(directory)
+							&& isExcludedDirectory(directory, dir))
+							// === SUCCESS (pruned) ===
+							return FileVisitResult.SKIP_SUBTREE;
+
+						return FileVisitResult.CONTINUE;
+					}
+
+
+					@Override
+					public FileVisitResult visitFile(
+						Path file,
+						BasicFileAttributes attributes
+					)
+					{
+						if (!attributes.isDirectory() && isMatch(directory, file))
+							consumer.accept(file);
+
+						return FileVisitResult.CONTINUE;
+					}
+
+
+					@Override
+					public FileVisitResult visitFileFailed(
+						Path file,
+						IOException e
+					)
+					{
+						// NOTE: unreadable entries and symlink loops are
+						// skipped, like File.listFiles() does
+						return FileVisitResult.CONTINUE;
+					}
+				}
+			);
+	}
+
+
+	/**
+	 * Thread safe.
+	 *
+	 * @param root
+	 *            the directory scanned
+	 * @param file
+	 * @return true, if the file name matches the pattern and no exclude, and
+	 *         its relative path is included and not excluded
+	 */
+	public boolean isMatch(
+		Path root,
+		Path file
+	)
+	{
+		var name = file.getFileName().toString();
+		if (!f_namePattern.matcher(name).matches())
+			// === SUCCESS ===
+			return false;
+
+		if (f_excludePattern != null
+			&& f_excludePattern.matcher(name).matches())
+			// === SUCCESS ===
+			return false;
+
+		if (f_globIncludes == null && f_globExcludes == null)
+			// === SUCCESS ===
+			return true;
+
+		var relativePath = root.relativize(file);
+		if (f_globIncludes != null && !f_globIncludes.matches(relativePath))
+			// === SUCCESS ===
+			return false;
+
+		return f_globExcludes == null || !f_globExcludes.matches(relativePath);
+	}
+
+
+	/**
+	 * Thread safe.
+	 *
+	 * @param root
+	 *            the directory scanned
+	 * @param dir
+	 * @return true, if an exclude is found in the normalized path of the
+	 *         directory, using / as separator, or if no file below it can be
+	 *         found due to the Ant-style patterns
+	 */
+	public boolean isExcludedDirectory(
+		Path root,
+		Path dir
+	)
+	{
+		if (f_globIncludes != null || f_globExcludes != null)
+		{
+			var relativePath = root.relativize(dir);
+			if (f_globIncludes != null
+				&& !f_globIncludes.matchesAnyBelow(relativePath))
+				// === SUCCESS ===
+				return true;
+
+			if (f_globExcludes != null
+				&& f_globExcludes.matchesAllBelow(relativePath))
+				// === SUCCESS ===
+				return true;
+		}
+
+		if (f_excludePattern == null)
+			// === SUCCESS ===
+			return false;
+
+		var path = dir.normalize().toString().replace(File.separatorChar, '/');
+
+		return f_excludePattern.matcher(path).find();
+	}
+}
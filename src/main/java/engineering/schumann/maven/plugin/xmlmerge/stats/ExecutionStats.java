@@ -0,0 +1,435 @@
+package engineering.schumann.maven.plugin.xmlmerge.stats;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.apache.maven.plugin.logging.Log;
+
+
+/**
+ * Time spent per phase, bytes read and written and documents parsed during
+ * one execution, per file group and in total.
+ *
+ * Files are assigned to a file group before they are processed, so the
+ * phases of files parsed ahead on other threads are still counted for their
+ * group. Times are summed over all threads, so they may add up to more than
+ * the wall time of a parallel execution.
+ *
+ * Thread safe.
+ */
+public class ExecutionStats
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	/** group of files that were not assigned to one, e.g. the scan */
+	public static final String OTHER      = "(other)";
+
+	/** number of groups listed in the log, slowest first */
+	private static final int   LOG_GROUPS = 10;
+
+
+	/*
+	 * ====================
+	 *
+	 * TYPES
+	 *
+	 * ====================
+	 */
+	public enum Phase
+	{
+		/** finding the files to merge */
+		SCAN,
+		/** reading and parsing documents */
+		PARSE,
+		/** merging parsed documents, or streaming them through */
+		MERGE,
+		/** serializing the merged document */
+		SERIALIZE,
+		/** replacing the output file, or copying a file into it */
+		WRITE
+	}
+
+
+	private static final class Counters
+	{
+		/** by phase ordinal */
+		private final LongAdder[] f_nanos;
+
+		private final LongAdder   f_bytesRead    = new LongAdder();
+
+		private final LongAdder   f_bytesWritten = new LongAdder();
+
+		private final LongAdder   f_documents    = new LongAdder();
+
+
+		private Counters()
+		{
+			f_nanos = new LongAdder[Phase.values().length];
+			for (var i = 0; i < f_nanos.length; i++)
+				f_nanos[i] = new LongAdder();
+		}
+
+
+		private long getNanos(
+			Phase phase
+		)
+		{
+			return f_nanos[phase.ordinal()].sum();
+		}
+
+
+		private long getTotalNanos()
+		{
+			var total = 0L;
+			for (var nanos : f_nanos)
+				total += nanos.sum();
+
+			return total;
+		}
+
+
+		private String toJson()
+		{
+			var json = new StringBuilder("{");
+			for (var phase : Phase.values())
+				json
+					.append('"')
+					.append(phase.name().toLowerCase(Locale.ROOT))
+					.append("Millis\": ")
+					.append(toMillis(getNanos(phase)))
+					.append(", ");
+
+			return json
+				.append("\"bytesRead\": ")
+				.append(f_bytesRead.sum())
+				.append(", \"bytesWritten\": ")
+				.append(f_bytesWritten.sum())
+				.append(", \"documents\": ")
+				.append(f_documents.sum())
+				.append('}')
+				.toString();
+		}
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final Map<String, Counters> f_groups      = new ConcurrentHashMap<>();
+
+	private final Map<File, String>     f_groupOfFile = new ConcurrentHashMap<>();
+
+	private final Counters              f_total       = new Counters();
+
+	private final long                  f_started     = System.nanoTime();
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Counts everything recorded for the files for the group.
+	 *
+	 * @param group
+	 * @param files
+	 *            inputs and outputs of the group
+	 */
+	public void assign(
+		String group,
+		Collection<File> files
+	)
+	{
+		for (var file : files)
+			f_groupOfFile.put(file.getAbsoluteFile(), group);
+	}
+
+
+	/**
+	 * @param file
+	 * @return the group assigned to the file, {@link #OTHER} if there is none
+	 */
+	public String getGroup(
+		File file
+	)
+	{
+		return f_groupOfFile.getOrDefault(file.getAbsoluteFile(), OTHER);
+	}
+
+
+	/**
+	 * @param file
+	 *            the file processed, null if not specific to a file
+	 * @param phase
+	 * @param nanos
+	 */
+	public void add(
+		File file,
+		Phase phase,
+		long nanos
+	)
+	{
+		f_total.f_nanos[phase.ordinal()].add(nanos);
+		countersOf(file).f_nanos[phase.ordinal()].add(nanos);
+	}
+
+
+	/**
+	 * Records a document parsed.
+	 *
+	 * @param file
+	 * @param nanos
+	 *            spent reading and parsing it
+	 */
+	public void addParsed(
+		File file,
+		long nanos
+	)
+	{
+		add(file, Phase.PARSE, nanos);
+		addRead(file, file.length());
+
+		f_total.f_documents.increment();
+		countersOf(file).f_documents.increment();
+	}
+
+
+	public void addRead(
+		File file,
+		long bytes
+	)
+	{
+		f_total.f_bytesRead.add(bytes);
+		countersOf(file).f_bytesRead.add(bytes);
+	}
+
+
+	public void addWritten(
+		File file,
+		long bytes
+	)
+	{
+		f_total.f_bytesWritten.add(bytes);
+		countersOf(file).f_bytesWritten.add(bytes);
+	}
+
+
+	/**
+	 * @param documents
+	 * @param waited
+	 *            receives the time spent waiting for the next document, i.e.
+	 *            parsing it or waiting for it to be parsed ahead
+	 * @return the documents, timing how long it takes to get each of them
+	 */
+	public static <T> Iterable<T> timed(
+		Iterable<T> documents,
+		LongAdder waited
+	)
+	{
+		return () -> {
+			var iterator = documents.iterator();
+
+			return new Iterator<T>()
+			{
+				@Override
+				public boolean hasNext()
+				{
+					var started = System.nanoTime();
+					try
+					{
+						return iterator.hasNext();
+					}
+					finally
+					{
+						waited.add(System.nanoTime() - started);
+					}
+				}
+
+
+				@Override
+				public T next()
+				{
+					var started = System.nanoTime();
+					try
+					{
+						return iterator.next();
+					}
+					finally
+					{
+						waited.add(System.nanoTime() - started);
+					}
+				}
+			};
+		};
+	}
+
+
+	/**
+	 * Writes all counters as JSON.
+	 *
+	 * @param reportFile
+	 * @param goal
+	 * @throws IOException
+	 */
+	public void writeReport(
+		File reportFile,
+		String goal
+	) throws IOException
+	{
+		var json = new StringBuilder();
+		json
+			.append("{\n")
+			.append("  \"goal\": \"")
+			.append(goal)
+			.append("\",\n")
+			.append("  \"wallMillis\": ")
+			.append(toMillis(System.nanoTime() - f_started))
+			.append(",\n")
+			.append("  \"total\": ")
+			.append(f_total.toJson())
+			.append(",\n")
+			.append("  \"groups\": {")
+			.append(
+				new TreeMap<>(f_groups)
+					.entrySet()
+					.stream()
+					.map(
+						group -> "\n    \"%s\": %s"
+							.formatted(
+								escape(group.getKey()),
+								group.getValue().toJson()
+							)
+					)
+					.collect(Collectors.joining(","))
+			)
+			.append("\n  }\n}\n");
+
+		reportFile.getAbsoluteFile().getParentFile().mkdirs();
+		Files
+			.writeString(reportFile.toPath(), json, StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * Logs a table of the total and the slowest groups.
+	 *
+	 * @param log
+	 */
+	public void log(
+		Log log
+	)
+	{
+		log
+			.info(
+				"%-30s %8s %8s %8s %9s %8s %10s %10s %6s"
+					.formatted(
+						"Timing (ms)",
+						"scan",
+						"parse",
+						"merge",
+						"serialize",
+						"write",
+						"read KB",
+						"written KB",
+						"docs"
+					)
+			);
+
+		var slowest = new ArrayList<>(f_groups.entrySet());
+		slowest
+			.sort(
+				Comparator
+					.comparingLong(
+						(Map.Entry<String, Counters> group) -> group
+							.getValue()
+							.getTotalNanos()
+					)
+					.reversed()
+			);
+		for (var i = 0; i < Math.min(LOG_GROUPS, slowest.size()); i++)
+			log.info(formatRow(slowest.get(i).getKey(), slowest.get(i).getValue()));
+		if (slowest.size() > LOG_GROUPS)
+			log
+				.info(
+					"... %d more groups, see the report"
+						.formatted(slowest.size() - LOG_GROUPS)
+				);
+
+		log.info(formatRow("TOTAL", f_total));
+	}
+
+
+	private Counters countersOf(
+		File file
+	)
+	{
+		var group = file != null
+			? getGroup(file)
+			: OTHER;
+
+		return f_groups.computeIfAbsent(group, key -> new Counters());
+	}
+
+
+	private static String formatRow(
+		String name,
+		Counters counters
+	)
+	{
+		return "%-30s %8d %8d %8d %9d %8d %10d %10d %6d"
+			.formatted(
+				name.length() > 30
+					? "..." + name.substring(name.length() - 27)
+					: name,
+				toMillis(counters.getNanos(Phase.SCAN)),
+				toMillis(counters.getNanos(Phase.PARSE)),
+				toMillis(counters.getNanos(Phase.MERGE)),
+				toMillis(counters.getNanos(Phase.SERIALIZE)),
+				toMillis(counters.getNanos(Phase.WRITE)),
+				counters.f_bytesRead.sum() / 1024,
+				counters.f_bytesWritten.sum() / 1024,
+				counters.f_documents.sum()
+			);
+	}
+
+
+	private static long toMillis(
+		long nanos
+	)
+	{
+		return nanos / 1_000_000;
+	}
+
+
+	private static String escape(
+		String value
+	)
+	{
+		return value.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+}
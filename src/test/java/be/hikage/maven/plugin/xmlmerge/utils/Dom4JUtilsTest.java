@@ -1,11 +1,13 @@
 package be.hikage.maven.plugin.xmlmerge.utils;
 
 
+import org.apache.commons.io.FileUtils;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Enumeration;
@@ -73,4 +75,110 @@ public class Dom4JUtilsTest
 			);
 
 	}
+
+
+	@Test
+	public void testReadDocument_markupInProlog() throws Exception
+	{
+		// === SETUP ===
+		var xmlFile = File.createTempFile("prolog", ".xml");
+		xmlFile.deleteOnExit();
+		FileUtils
+			.writeStringToFile(
+				xmlFile,
+				"Copyright <someone>\n\tsee <LICENSE>\n  <sample><element/></sample>",
+				"UTF-8"
+			);
+
+		var prolog = new StringBuilder();
+		var result = Dom4JUtils.readDocument(xmlFile.toURI().toURL(), prolog);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals("sample", result.getRootElement().getName());
+		Assert
+			.assertEquals(
+				"Copyright <someone>\n\tsee <LICENSE>",
+				prolog.toString()
+			);
+	}
+
+
+	@Test
+	public void testReadDocument_utf16() throws Exception
+	{
+		// === SETUP ===
+		var xmlFile = File.createTempFile("prolog", ".xml");
+		xmlFile.deleteOnExit();
+		FileUtils
+			.writeStringToFile(
+				xmlFile,
+				"<?xml version=\"1.0\" encoding=\"UTF-16\"?>\n<sample/>",
+				"UTF-16"
+			);
+
+		var prolog = new StringBuilder();
+		var result = Dom4JUtils.readDocument(xmlFile.toURI().toURL(), prolog);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals("sample", result.getRootElement().getName());
+		Assert.assertEquals("", prolog.toString());
+	}
+
+
+	@Test
+	public void testReadDocument_utf8ByteOrderMark() throws Exception
+	{
+		// === SETUP ===
+		var xmlFile = File.createTempFile("prolog", ".xml");
+		xmlFile.deleteOnExit();
+		FileUtils
+			.writeStringToFile(
+				xmlFile,
+				"\uFEFF<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<sample/>",
+				"UTF-8"
+			);
+
+		var prolog = new StringBuilder();
+		var result = Dom4JUtils.readDocument(xmlFile.toURI().toURL(), prolog);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals("sample", result.getRootElement().getName());
+		Assert.assertEquals("", prolog.toString());
+	}
+
+
+	@Test
+	public void testReadDocument_prologEncoding() throws Exception
+	{
+		// === SETUP ===
+		var latin1 = File.createTempFile("prolog", ".xml");
+		latin1.deleteOnExit();
+		FileUtils
+			.writeStringToFile(
+				latin1,
+				"\u00A9 M\u00FCller\n"
+					+ "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n"
+					+ "<sample>\u00E4</sample>",
+				"ISO-8859-1"
+			);
+		var utf8   = File.createTempFile("prolog", ".xml");
+		utf8.deleteOnExit();
+		FileUtils
+			.writeStringToFile(
+				utf8,
+				"\u00A9 M\u00FCller\n<sample>\u00E4</sample>",
+				"UTF-8"
+			);
+
+		var latin1Prolog = new StringBuilder();
+		var latin1Result = Dom4JUtils
+			.readDocument(latin1.toURI().toURL(), latin1Prolog);
+		var utf8Prolog   = new StringBuilder();
+		Dom4JUtils.readDocument(utf8.toURI().toURL(), utf8Prolog);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals("\u00A9 M\u00FCller", latin1Prolog.toString());
+		Assert.assertEquals("\u00E4", latin1Result.getRootElement().getText());
+		Assert.assertEquals("\u00A9 M\u00FCller", utf8Prolog.toString());
+	}
 }
@@ -0,0 +1,186 @@
+package engineering.schumann.maven.plugin.xmlmerge;
+
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.DocumentHelper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class DocumentSequenceTest
+{
+	private ExecutorService f_executor;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_executor = Executors.newFixedThreadPool(8);
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		f_executor.shutdownNow();
+	}
+
+
+	@Test
+	public void testIterator_prefetchOrder() throws Exception
+	{
+		// === SETUP ===
+		var files    = files(20);
+		var loading  = new AtomicInteger();
+		var maxLoads = new AtomicInteger();
+
+		var names    = new ArrayList<String>();
+		try (var sequence = new DocumentSequence(files, file -> {
+			maxLoads.accumulateAndGet(loading.incrementAndGet(), Math::max);
+			try
+			{
+				// NOTE: later files load faster, so they finish first
+				Thread.sleep(20 - Integer.parseInt(file.getName()));
+				return document(file);
+			}
+			finally
+			{
+				loading.decrementAndGet();
+			}
+		}, f_executor, 3))
+		{
+			for (var document : sequence)
+				names.add(document.getRootElement().getName());
+		}
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(20, names.size());
+		for (var i = 0; i < names.size(); i++)
+			Assert.assertEquals("f" + i, names.get(i));
+		Assert.assertTrue(maxLoads.get() > 1);
+		Assert.assertTrue(String.valueOf(maxLoads.get()), maxLoads.get() <= 3);
+	}
+
+
+	@Test
+	public void testIterator_failure() throws Exception
+	{
+		assertFailure(null);
+		assertFailure(f_executor);
+	}
+
+
+	@Test
+	public void testClose_cancelsPending() throws Exception
+	{
+		// === SETUP ===
+		var files       = files(5);
+		var started     = new CountDownLatch(3);
+		var interrupted = new CountDownLatch(3);
+
+		var sequence    = new DocumentSequence(files, file -> {
+			if (file.getName().equals("0"))
+			{
+				// NOTE: fails once the others are loading
+				started.await(5, TimeUnit.SECONDS);
+				throw new DocumentException("malformed");
+			}
+
+			started.countDown();
+			try
+			{
+				Thread.sleep(60_000);
+			}
+			catch (InterruptedException e)
+			{
+				interrupted.countDown();
+				throw e;
+			}
+			return document(file);
+		}, f_executor, 4);
+
+		// === BODY ===
+		try
+		{
+			sequence.iterator().next();
+			Assert.fail("loaded a malformed file");
+		}
+		catch (XmlLoadException e)
+		{
+			Assert.assertEquals(files.get(0), e.getFile());
+		}
+		sequence.close();
+
+		// === ASSERTIONS ===
+		Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue(sequence.f_pending.isEmpty());
+	}
+
+
+	/**
+	 * Iterates files of which the third one fails to load.
+	 */
+	private static void assertFailure(
+		ExecutorService executor
+	)
+	{
+		// === SETUP ===
+		var files  = files(5);
+		var names  = new ArrayList<String>();
+		var failed = new DocumentException("malformed");
+
+		try (var sequence = new DocumentSequence(files, file -> {
+			if (file.getName().equals("2"))
+				throw failed;
+			return document(file);
+		}, executor, 2))
+		{
+			for (var document : sequence)
+				names.add(document.getRootElement().getName());
+
+			Assert.fail("loaded a malformed file");
+		}
+		catch (XmlLoadException e)
+		{
+			// === ASSERTIONS ===
+			Assert.assertEquals(files.get(2), e.getFile());
+			Assert.assertSame(failed, e.getCause());
+			Assert.assertTrue(e.getMessage().contains(files.get(2).getPath()));
+		}
+		Assert.assertEquals(List.of("f0", "f1"), names);
+	}
+
+
+	private static List<File> files(
+		int count
+	)
+	{
+		var files = new ArrayList<File>();
+		for (var i = 0; i < count; i++)
+			files.add(new File(String.valueOf(i)).getAbsoluteFile());
+
+		return files;
+	}
+
+
+	private static Document document(
+		File file
+	)
+	{
+		return DocumentHelper.createDocument(
+			DocumentHelper.createElement("f" + file.getName())
+		);
+	}
+}
@@ -0,0 +1,115 @@
+package engineering.schumann.maven.plugin.xmlmerge;
+
+
+import java.util.List;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class KeyedMergerTest
+{
+	private static final String MERGER = "xmlns:m='%s'"
+		.formatted(KeyedMerger.NAMESPACE);
+
+
+	@Test
+	public void testMergeAllInto() throws Exception
+	{
+		// === SETUP ===
+		var base   = DocumentHelper
+			.parseText(
+				"<beans>"
+					+ "<bean id='a' class='A'><property name='x' value='1'/></bean>"
+					+ "<bean id='b' class='B'><property name='x' value='1'/>"
+					+ "<property name='y' value='1'/></bean>"
+					+ "<logger name='root' level='INFO'/>"
+					+ "</beans>"
+			);
+		var data   = List
+			.<Document> of(
+				DocumentHelper
+					.parseText(
+						"<beans " + MERGER + ">"
+							+ "<bean id='a' class='A2'/>"
+							+ "<bean id='b' m:action='merge'>"
+							+ "<property name='y' value='2'/>"
+							+ "<property name='z' value='2'/></bean>"
+							+ "<bean id='c' class='C'/>"
+							+ "</beans>"
+					),
+				DocumentHelper
+					.parseText(
+						"<beans " + MERGER + ">"
+							+ "<logger name='root' level='DEBUG'/>"
+							+ "<bean id='c' class='C2'/>"
+							+ "<bean id='a' class='A3' m:action='append'/>"
+							+ "<alias/>"
+							+ "</beans>"
+					)
+			);
+
+		var result = new KeyedMerger(List.of("id", "name"))
+			.mergeAllInto(base, data);
+
+		// === ASSERTIONS ===
+		var root = result.getRootElement();
+		Assert.assertSame(base, result);
+		Assert.assertEquals(6, root.elements().size());
+
+		// NOTE: replaced in place
+		var a = (Element) root.elements().get(0);
+		Assert.assertEquals("A2", a.attributeValue("class"));
+		Assert.assertTrue(a.elements().isEmpty());
+
+		var b = (Element) root.elements().get(1);
+		Assert.assertEquals("B", b.attributeValue("class"));
+		Assert.assertNull(b.attribute("action"));
+		Assert
+			.assertEquals(
+				"1,2,2",
+				String
+					.join(
+						",",
+						b.valueOf("property[@name='x']/@value"),
+						b.valueOf("property[@name='y']/@value"),
+						b.valueOf("property[@name='z']/@value")
+					)
+			);
+
+		Assert
+			.assertEquals(
+				"DEBUG",
+				((Element) root.elements().get(2)).attributeValue("level")
+			);
+
+		// NOTE: appended by the first fragment, replaced by the second
+		Assert.assertEquals(1, root.selectNodes("bean[@id='c']").size());
+		Assert.assertEquals("C2", root.valueOf("bean[@id='c']/@class"));
+
+		Assert.assertEquals(2, root.selectNodes("bean[@id='a']").size());
+		Assert
+			.assertEquals("alias", ((Element) root.elements().get(5)).getName());
+	}
+
+
+	@Test
+	public void testMergeXml_inputsUnchanged() throws Exception
+	{
+		// === SETUP ===
+		var base   = DocumentHelper
+			.parseText("<beans><bean id='a' class='A'/></beans>");
+		var data   = DocumentHelper
+			.parseText("<beans><bean id='a' class='B'/></beans>");
+
+		var result = new KeyedMerger(List.of("id")).mergeXml(base, data);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals("B", result.valueOf("/beans/bean/@class"));
+		Assert.assertEquals("A", base.valueOf("/beans/bean/@class"));
+		Assert.assertEquals(1, data.getRootElement().elements().size());
+	}
+}
@@ -0,0 +1,208 @@
+package engineering.schumann.maven.plugin.xmlmerge;
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.dom4j.io.SAXReader;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class MergeMultipleXmlToSingleXmlMojoTest
+{
+	private File f_directory;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("mergemultiple").toFile();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testExecute_parallelFailures() throws Exception
+	{
+		assertFailuresReported(false);
+	}
+
+
+	@Test
+	public void testExecute_virtualThreadFailures() throws Exception
+	{
+		// NOTE: falls back to platform threads before Java 21
+		assertFailuresReported(true);
+	}
+
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testDocumentCache_sharedBySessionClones() throws Exception
+	{
+		// === SETUP ===
+		var session = new MavenSession(
+			null,
+			null,
+			new DefaultMavenExecutionRequest(),
+			null
+		);
+
+		var first   = new MergeMultipleXmlToSingleXmlMojo();
+		configure(first);
+		first.session  = session;
+
+		// NOTE: a parallel build runs every module with a clone
+		var second  = new MergeMultipleXmlToSingleXmlMojo();
+		configure(second);
+		second.session = session.clone();
+
+		var other   = new MergeMultipleXmlToSingleXmlMojo();
+		configure(other);
+		other.session  = new MavenSession(
+			null,
+			null,
+			new DefaultMavenExecutionRequest(),
+			null
+		);
+
+		// === ASSERTIONS ===
+		Assert.assertSame(first.getDocumentCache(), second.getDocumentCache());
+		Assert
+			.assertNotSame(first.getDocumentCache(), other.getDocumentCache());
+	}
+
+
+	/**
+	 * Merges three file groups at once, two of which are malformed.
+	 */
+	private void assertFailuresReported(
+		boolean virtualThreads
+	) throws Exception
+	{
+		// === SETUP ===
+		write("input/good-a.xml", "<beans><bean id='a'/></beans>");
+		write("input/good-b.xml", "<beans><bean id='b'/></beans>");
+		// NOTE: a group of one file without a base file is copied, not parsed
+		write("input/bad-a.xml", "<beans><bean id='a'/></beans>");
+		write("input/bad-b.xml", "<beans><bean></beans>");
+		write("input/worse-a.xml", "<beans><bean id='a'/></beans>");
+		write("input/worse-b.xml", "<beans");
+
+		// NOTE: every group waits for the others, which only returns if all
+		// three are merged at the same time
+		var barrier = new CyclicBarrier(3);
+		var mojo    = new MergeMultipleXmlToSingleXmlMojo()
+		{
+			@Override
+			protected void mergeFileGroup(
+				String fileGroup,
+				List<File> filesToMerge
+			) throws Exception
+			{
+				barrier.await(10, TimeUnit.SECONDS);
+				super.mergeFileGroup(fileGroup, filesToMerge);
+			}
+		};
+		configure(mojo);
+		mojo.parallelism    = 3;
+		mojo.virtualThreads = virtualThreads;
+
+		MojoExecutionException failure = null;
+		try
+		{
+			mojo.execute();
+		}
+		catch (MojoExecutionException e)
+		{
+			failure = e;
+		}
+
+		// === ASSERTIONS ===
+		Assert.assertNotNull(failure);
+		Assert
+			.assertTrue(
+				failure.getMessage(),
+				failure
+					.getMessage()
+					.startsWith(
+						"Unable to merge xml: 2 of 3 file groups failed"
+					)
+			);
+		Assert.assertTrue(failure.getMessage().contains("\n- bad: "));
+		Assert.assertTrue(failure.getMessage().contains("\n- worse: "));
+		Assert.assertNotNull(failure.getCause());
+		Assert.assertEquals(1, failure.getSuppressed().length);
+
+		// NOTE: the other groups are merged, the failed ones not written
+		var output = new File(f_directory, "output/good.xml");
+		Assert
+			.assertEquals(
+				2,
+				new SAXReader().read(output).selectNodes("//bean").size()
+			);
+		Assert.assertFalse(new File(f_directory, "output/bad.xml").exists());
+		Assert.assertFalse(new File(f_directory, "output/worse.xml").exists());
+	}
+
+
+	/**
+	 * Sets the parameters to their defaults, like Maven does.
+	 */
+	private void configure(
+		MergeMultipleXmlToSingleXmlMojo mojo
+	)
+	{
+		mojo.inputDirectory       = new File(f_directory, "input");
+		mojo.baseDirectory        = new File(f_directory, "base");
+		mojo.outputDirectory      = new File(f_directory, "output");
+		mojo.stateDirectory       = new File(f_directory, "state");
+		mojo.mergeFilenamePattern = "(?<fileGroup>[a-z]+)-.*\\.xml";
+		mojo.processProlog        = false;
+		mojo.ignoreComments       = false;
+		mojo.parseThreads         = 1;
+		mojo.parseReadAhead       = 16;
+		mojo.scanThreads          = 1;
+		mojo.incremental          = false;
+		mojo.loadExternalDtds     = false;
+		mojo.parserBackend        = "sax";
+		mojo.outputFormat         = "pretty";
+		mojo.outputEncoding       = "UTF-8";
+		mojo.documentCacheSize    = 128;
+		mojo.cleanOutputFile      = true;
+		mojo.failIfNoneFound      = true;
+		mojo.mergeMode            = "simple";
+		mojo.mergeKeys            = "id,name";
+		mojo.inMemory             = true;
+		mojo.streaming            = false;
+
+		mojo.removeMergeDocumentAfterProcessing = false;
+	}
+
+
+	private File write(
+		String name,
+		String content
+	) throws Exception
+	{
+		var file = new File(f_directory, name);
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+		return file;
+	}
+}
@@ -0,0 +1,62 @@
+package engineering.schumann.maven.plugin.xmlmerge;
+
+
+import java.util.List;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Node;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class SimpleMergerTest
+{
+
+	@Test
+	public void testMergeXml_inputsUnchanged() throws Exception
+	{
+		// === SETUP ===
+		var base   = DocumentHelper.parseText("<beans><bean id='a'/></beans>");
+		var data   = DocumentHelper.parseText("<beans><bean id='b'/></beans>");
+
+		var result = new SimpleMerger().mergeXml(base, data);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(2, result.getRootElement().elements().size());
+		Assert.assertEquals(1, base.getRootElement().elements().size());
+		Assert.assertEquals(1, data.getRootElement().elements().size());
+	}
+
+
+	@Test
+	public void testMergeAllInto_keepsOrder() throws Exception
+	{
+		// === SETUP ===
+		var base   = DocumentHelper.parseText("<beans><bean id='a'/></beans>");
+		var data   = List
+			.<Document> of(
+				DocumentHelper.parseText("<beans><bean id='b'/></beans>"),
+				DocumentHelper
+					.parseText("<beans><bean id='c'/><bean id='d'/></beans>")
+			);
+
+		var result = new SimpleMerger().mergeAllInto(base, data);
+
+		// === ASSERTIONS ===
+		Assert.assertSame(base, result);
+		Assert.assertEquals("abcd", idsOf(result));
+	}
+
+
+	private static String idsOf(
+		Document document
+	)
+	{
+		var ids = new StringBuilder();
+		for (var bean : document.selectNodes("/beans/bean/@id"))
+			ids.append(((Node) bean).getText());
+
+		return ids.toString();
+	}
+}
@@ -0,0 +1,181 @@
+package engineering.schumann.maven.plugin.xmlmerge;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+import org.dom4j.Attribute;
+import org.dom4j.Comment;
+import org.dom4j.Document;
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+import org.dom4j.Node;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import engineering.schumann.maven.plugin.xmlmerge.io.ParserBackend;
+import engineering.schumann.maven.plugin.xmlmerge.io.XmlReaderFactory;
+
+
+public class StreamingSimpleMergerTest
+{
+	/** never loaded, the catalog has it */
+	private static final String DTD = "http://unreachable.invalid/beans.dtd";
+
+	private File                f_directory;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("streamingmerger").toFile();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testMerge_sameAsSimpleMerger() throws Exception
+	{
+		// === SETUP ===
+		// NOTE: the entity is declared by an external DTD, found by a catalog.
+		// it is not loaded from anywhere else.
+		write("beans.dtd", "<!ENTITY greeting \"hello\">");
+		var catalog = write(
+			"catalog.xml",
+			"<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">"
+				+ "<system systemId=\"" + DTD + "\" uri=\"beans.dtd\"/>"
+				+ "</catalog>"
+		);
+		var base    = write(
+			"base.xml",
+			"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+				+ "<beans xmlns=\"urn:beans\"><bean id=\"base\"/></beans>\n"
+		);
+		var files   = List
+			.of(
+				write(
+					"a.xml",
+					"<!DOCTYPE beans SYSTEM \"" + DTD + "\">\n"
+						+ "<beans xmlns=\"urn:beans\" xmlns:p=\"urn:p\">\n"
+						+ "  <bean id=\"a\" p:name=\"a\">&greeting;</bean>\n"
+						+ "  <p:bean><![CDATA[<raw>]]></p:bean>\n"
+						+ "</beans>\n"
+				),
+				write(
+					"b.xml",
+					"<beans xmlns=\"urn:beans\"><!-- b -->"
+						+ "<bean id=\"b\"><!-- inner --></bean></beans>"
+				)
+			);
+
+		// === ASSERTIONS ===
+		for (var backend : ParserBackend.values())
+		{
+			var readerFactory = new XmlReaderFactory(
+				false,
+				List.of(catalog),
+				false,
+				backend
+			);
+
+			var expected      = readerFactory.read(base);
+			var documents     = new ArrayList<Document>();
+			for (var file : files)
+				documents.add(readerFactory.read(file));
+			new SimpleMerger().mergeAllInto(expected, documents);
+
+			var output        = new ByteArrayOutputStream();
+			new StreamingSimpleMerger(false, "UTF-8", readerFactory)
+				.merge(base, files, output);
+			var actual        = readerFactory
+				.read(new ByteArrayInputStream(output.toByteArray()), null);
+
+			Assert.assertEquals(
+				backend.toString(),
+				elementsOf(expected),
+				elementsOf(actual)
+			);
+		}
+	}
+
+
+	/**
+	 * @return the children of the root element. Whitespace and comments
+	 *         between them differ: SimpleMerger only moves elements.
+	 */
+	private static List<String> elementsOf(
+		Document document
+	)
+	{
+		var elements = new ArrayList<String>();
+		for (var element : document.getRootElement().elements())
+			elements.add(describe((Element) element));
+
+		return elements;
+	}
+
+
+	/**
+	 * @return the names, attributes and content of the element. Not the order
+	 *         of its attributes, nor where its namespaces are declared.
+	 */
+	private static String describe(
+		Element element
+	)
+	{
+		var attributes = new TreeSet<String>();
+		for (var attribute : element.attributes())
+			attributes
+				.add(
+					((Attribute) attribute).getQName().getQualifiedName()
+						+ "="
+						+ ((Attribute) attribute).getValue()
+				);
+
+		// NOTE: dom4j keeps entity references of SAX as nodes, their text is
+		// what the streaming parser expands them to
+		var content    = new StringBuilder();
+		for (var node : element.content())
+		{
+			if (node instanceof Element)
+				content.append(describe((Element) node));
+			else if (node instanceof Comment)
+				content.append(((Comment) node).asXML());
+			else if (!(node instanceof Namespace))
+				content.append(((Node) node).getText());
+		}
+
+		return "{%s}%s%s[%s]"
+			.formatted(
+				element.getNamespaceURI(),
+				element.getQualifiedName(),
+				attributes,
+				content
+			);
+	}
+
+
+	private File write(
+		String name,
+		String content
+	) throws Exception
+	{
+		var file = new File(f_directory, name);
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+		return file;
+	}
+}
@@ -0,0 +1,95 @@
+package engineering.schumann.maven.plugin.xmlmerge.incremental;
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class BuildStateTest
+{
+	private File f_directory;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("buildstate").toFile();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testIsUpToDate() throws Exception
+	{
+		// === SETUP ===
+		var base     = write("base.xml", "<beans/>");
+		var fragment = write("fragment.xml", "<beans><bean/></beans>");
+		var output   = new File(f_directory, "output.xml");
+		var inputs   = List.of(base, fragment);
+
+		var state    = BuildState.load(new File(f_directory, "test.state"));
+		Assert.assertFalse(state.isUpToDate(output, "settings", inputs));
+
+		var fingerprints = state.fingerprint(inputs);
+		FileUtils.writeStringToFile(output, "<beans><bean/></beans>", "UTF-8");
+		state.record(output, "settings", fingerprints);
+		state.save();
+
+		// === ASSERTIONS ===
+		state = BuildState.load(new File(f_directory, "test.state"));
+		Assert.assertTrue(state.isUpToDate(output, "settings", inputs));
+		Assert.assertFalse(state.isUpToDate(output, "changed", inputs));
+		Assert.assertFalse(state.isUpToDate(output, "settings", List.of(base)));
+
+		write("fragment.xml", "<beans><bean id='changed'/></beans>");
+		Assert.assertFalse(state.isUpToDate(output, "settings", inputs));
+	}
+
+
+	@Test
+	public void testIsUpToDate_baseIsOutput() throws Exception
+	{
+		// === SETUP ===
+		var base     = write("base.xml", "<beans/>");
+		var fragment = write("fragment.xml", "<beans><bean/></beans>");
+		var inputs   = List.of(base, fragment);
+
+		var state    = BuildState.load(new File(f_directory, "test.state"));
+		var fingerprints = state.fingerprint(inputs);
+		write("base.xml", "<beans><bean/></beans>");
+		state.record(base, "settings", fingerprints);
+
+		// === ASSERTIONS ===
+		// the base now holds the output, which is what is expected
+		Assert.assertTrue(state.isUpToDate(base, "settings", inputs));
+
+		// base restored, e.g. by resources:resources
+		write("base.xml", "<beans />");
+		Assert.assertFalse(state.isUpToDate(base, "settings", inputs));
+	}
+
+
+	private File write(
+		String name,
+		String content
+	) throws Exception
+	{
+		var file = new File(f_directory, name);
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+
+		return file;
+	}
+}
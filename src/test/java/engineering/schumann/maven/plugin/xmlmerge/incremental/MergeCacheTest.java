@@ -0,0 +1,134 @@
+package engineering.schumann.maven.plugin.xmlmerge.incremental;
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class MergeCacheTest
+{
+	private File f_directory;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("mergecache").toFile();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testRestore() throws Exception
+	{
+		// === SETUP ===
+		var input  = write("input.xml", "<beans><bean/></beans>");
+		var output = write("output/beans.xml", "<beans><bean/></beans>");
+		var cache  = new MergeCache(new File(f_directory, "cache"), 0);
+		var key    = cache.key("settings", List.of(FileFingerprint.of(input)));
+
+		// === ASSERTIONS ===
+		Assert.assertFalse(cache.restore(key, output));
+		cache.store(key, output);
+
+		// NOTE: same content, left alone
+		Files
+			.setLastModifiedTime(output.toPath(), FileTime.fromMillis(1_000_000));
+		Assert.assertTrue(cache.restore(key, output));
+		Assert.assertEquals(1_000_000, output.lastModified());
+
+		// NOTE: changed content, newer than before, not as old as the entry
+		FileUtils.writeStringToFile(output, "<beans/>", "UTF-8");
+		Files
+			.setLastModifiedTime(output.toPath(), FileTime.fromMillis(1_000_000));
+		setEntryTimes(List.of(key), 2_000_000);
+		var before = System.currentTimeMillis() - 1_000;
+		Assert.assertTrue(cache.restore(key, output));
+		Assert
+			.assertEquals(
+				"<beans><bean/></beans>",
+				FileUtils.readFileToString(output, "UTF-8")
+			);
+		Assert.assertTrue(output.lastModified() >= before);
+
+		var restored = new File(f_directory, "other/beans.xml");
+		Assert.assertTrue(cache.restore(key, restored));
+		Assert
+			.assertEquals(
+				"<beans><bean/></beans>",
+				FileUtils.readFileToString(restored, "UTF-8")
+			);
+	}
+
+
+	@Test
+	public void testTrim() throws Exception
+	{
+		// === SETUP ===
+		var cache   = new MergeCache(new File(f_directory, "cache"), 250);
+		var outputs = new ArrayList<File>();
+		var keys    = new ArrayList<String>();
+		for (var i = 0; i < 3; i++)
+		{
+			var output = write("output" + i + ".xml", "x".repeat(100));
+			var key    = cache.key("settings" + i, List.of());
+			cache.store(key, output);
+			outputs.add(output);
+			keys.add(key);
+		}
+		// NOTE: entry 0 is used last, entry 1 least recently
+		setEntryTimes(keys, 3_000_000, 1_000_000, 2_000_000);
+		cache.restore(keys.get(0), outputs.get(0));
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(1, cache.trim());
+		Assert.assertEquals(0, cache.trim());
+		Assert.assertFalse(cache.restore(keys.get(1), outputs.get(1)));
+		Assert.assertTrue(cache.restore(keys.get(0), outputs.get(0)));
+		Assert.assertTrue(cache.restore(keys.get(2), outputs.get(2)));
+	}
+
+
+	private void setEntryTimes(
+		List<String> keys,
+		long... times
+	) throws Exception
+	{
+		for (var i = 0; i < keys.size(); i++)
+		{
+			var key   = keys.get(i);
+			var entry = new File(f_directory, "cache/" + key.substring(0, 2));
+			Files
+				.setLastModifiedTime(
+					new File(entry, key).toPath(),
+					FileTime.fromMillis(times[i])
+				);
+		}
+	}
+
+
+	private File write(
+		String name,
+		String content
+	) throws Exception
+	{
+		var file = new File(f_directory, name);
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+		return file;
+	}
+}
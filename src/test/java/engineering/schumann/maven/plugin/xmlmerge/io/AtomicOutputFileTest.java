@@ -0,0 +1,148 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class AtomicOutputFileTest
+{
+	private File f_directory;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("atomic").toFile();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testCommit_unchanged() throws Exception
+	{
+		// === SETUP ===
+		var file = new File(f_directory, "beans.xml");
+		FileUtils.writeStringToFile(file, "<beans/>", "UTF-8");
+		Files
+			.setLastModifiedTime(file.toPath(), FileTime.fromMillis(1_000_000));
+
+		// === ASSERTIONS ===
+		try (var output = new AtomicOutputFile(file))
+		{
+			output.getOutputStream().write(bytes("<beans/>"));
+			Assert.assertFalse(output.commit());
+		}
+		Assert.assertEquals(1_000_000, file.lastModified());
+
+		try (var output = new AtomicOutputFile(file))
+		{
+			output.getOutputStream().write(bytes("<beans><bean/></beans>"));
+			Assert.assertTrue(output.commit());
+		}
+		Assert
+			.assertEquals(
+				"<beans><bean/></beans>",
+				FileUtils.readFileToString(file, "UTF-8")
+			);
+		Assert
+			.assertArrayEquals(new String[] { "beans.xml" }, f_directory.list());
+	}
+
+
+	@Test
+	public void testClose_notCommitted() throws Exception
+	{
+		// === SETUP ===
+		var file  = new File(f_directory, "beans.xml");
+		var large = new File(f_directory, "large.xml");
+
+		try (var output = new AtomicOutputFile(file))
+		{
+			output.getOutputStream().write(bytes("<beans/>"));
+		}
+		// NOTE: spilled to a temporary file
+		try (var output = new AtomicOutputFile(large))
+		{
+			output.getOutputStream().write(new byte[8 * 1024 * 1024]);
+		}
+
+		// === ASSERTIONS ===
+		Assert.assertArrayEquals(new String[0], f_directory.list());
+	}
+
+
+	@Test
+	public void testCommit_permissions() throws Exception
+	{
+		// === SETUP ===
+		Assume
+			.assumeTrue(
+				f_directory.toPath().getFileSystem()
+					.supportedFileAttributeViews()
+					.contains("posix")
+			);
+		var defaults = Files
+			.getPosixFilePermissions(
+				Files.createFile(new File(f_directory, "probe").toPath())
+			);
+		Files.delete(new File(f_directory, "probe").toPath());
+
+		var existing = new File(f_directory, "existing.xml");
+		FileUtils.writeStringToFile(existing, "<beans/>", "UTF-8");
+		var custom = PosixFilePermissions.fromString("rw-r-----");
+		Files.setPosixFilePermissions(existing.toPath(), custom);
+
+		var created = new File(f_directory, "created.xml");
+		var large   = new File(f_directory, "large.xml");
+
+		// === BODY ===
+		try (var output = new AtomicOutputFile(existing))
+		{
+			output.getOutputStream().write(bytes("<beans><bean/></beans>"));
+			output.commit();
+		}
+		try (var output = new AtomicOutputFile(created))
+		{
+			output.getOutputStream().write(bytes("<beans/>"));
+			output.commit();
+		}
+		try (var output = new AtomicOutputFile(large))
+		{
+			output.getOutputStream().write(new byte[8 * 1024 * 1024]);
+			output.commit();
+		}
+
+		// === ASSERTIONS ===
+		Assert
+			.assertEquals(custom, Files.getPosixFilePermissions(existing.toPath()));
+		Assert
+			.assertEquals(defaults, Files.getPosixFilePermissions(created.toPath()));
+		Assert
+			.assertEquals(defaults, Files.getPosixFilePermissions(large.toPath()));
+	}
+
+
+	private static byte[] bytes(
+		String content
+	)
+	{
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,128 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class CachingEntityResolverTest
+{
+	private static final String DOCUMENT = "<!DOCTYPE beans PUBLIC "
+		+ "\"-//TEST//DTD BEANS//EN\" \"http://unreachable.invalid/beans.dtd\">"
+		+ "<beans>&greeting;</beans>";
+
+	private File                f_directory;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("entityresolver").toFile();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testResolveEntity_fromCatalog() throws Exception
+	{
+		// === SETUP ===
+		write("beans.dtd", "<!ENTITY greeting \"hello\">");
+		var catalog = write(
+			"catalog.xml",
+			"<catalog xmlns=\"urn:oasis:names:tc:entity:xmlns:xml:catalog\">"
+				+ "<public publicId=\"-//TEST//DTD BEANS//EN\" uri=\"beans.dtd\"/>"
+				+ "</catalog>"
+		);
+		var file    = write("beans.xml", DOCUMENT);
+
+		var factory = new XmlReaderFactory(false, List.of(catalog), false);
+
+		// === ASSERTIONS ===
+		var document = factory.read(file);
+		Assert.assertEquals("hello", document.getRootElement().getText());
+	}
+
+
+	@Test
+	public void testResolveEntity_neverLoaded() throws Exception
+	{
+		// === SETUP ===
+		var file    = write(
+			"beans.xml",
+			DOCUMENT.replace("&greeting;", "<bean/>")
+		);
+
+		var factory = new XmlReaderFactory(false, List.of(), false);
+
+		// === ASSERTIONS ===
+		// NOTE: would fail trying to fetch the DTD otherwise
+		var document = factory.read(file);
+		Assert.assertEquals(1, document.getRootElement().elements().size());
+	}
+
+
+	@Test
+	public void testResolveEntity_cachedPerFactory() throws Exception
+	{
+		// === SETUP ===
+		var dtd     = write("beans.dtd", "<!ENTITY greeting \"hello\">");
+		var file    = write(
+			"beans.xml",
+			DOCUMENT
+				.replace(
+					"http://unreachable.invalid/beans.dtd",
+					dtd.toURI().toString()
+				)
+		);
+
+		var factory = new XmlReaderFactory(true, List.of(), true);
+		factory.read(file);
+		write("beans.dtd", "<!ENTITY greeting \"bye\">");
+
+		// === ASSERTIONS ===
+		// NOTE: loaded once per execution, its factories share the entities
+		Assert
+			.assertEquals("hello", factory.read(file).getRootElement().getText());
+		Assert
+			.assertEquals(
+				"hello",
+				factory
+					.withIgnoreComments(false)
+					.read(file)
+					.getRootElement()
+					.getText()
+			);
+		Assert
+			.assertEquals(
+				"bye",
+				new XmlReaderFactory(true, List.of(), true)
+					.read(file)
+					.getRootElement()
+					.getText()
+			);
+	}
+
+
+	private File write(
+		String name,
+		String content
+	) throws Exception
+	{
+		var file = new File(f_directory, name);
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+		return file;
+	}
+}
@@ -0,0 +1,206 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.dom4j.DocumentException;
+import org.dom4j.io.SAXReader;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class DocumentCacheTest
+{
+	private File          f_directory;
+
+	private DocumentCache f_cache;
+
+	private AtomicInteger f_loads;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("documentcache").toFile();
+		f_cache     = new DocumentCache();
+		f_cache.setMaxBytes(1024 * 1024);
+		f_loads     = new AtomicInteger();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testLoad_returnsCopies() throws Exception
+	{
+		// === SETUP ===
+		var base  = write("base.xml", "<beans/>");
+
+		var first = load(base);
+		first.getRootElement().addElement("bean");
+		var second = load(base);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(1, f_loads.get());
+		Assert.assertEquals(0, second.getRootElement().elements().size());
+	}
+
+
+	@Test
+	public void testLoadShared() throws Exception
+	{
+		// === SETUP ===
+		var base   = write("base.xml", "<beans><bean/></beans>");
+
+		var first  = f_cache.loadShared(base, "test", null, this::parse);
+		var second = f_cache.loadShared(base, "test", null, this::parse);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(1, f_loads.get());
+		Assert.assertSame(first, second);
+		Assert.assertNotSame(first, load(base));
+	}
+
+
+	@Test
+	public void testForSession() throws Exception
+	{
+		// === SETUP ===
+		var session = new Object();
+
+		// === ASSERTIONS ===
+		Assert
+			.assertSame(
+				DocumentCache.forSession(session),
+				DocumentCache.forSession(session)
+			);
+		Assert
+			.assertNotSame(
+				DocumentCache.forSession(session),
+				DocumentCache.forSession(new Object())
+			);
+	}
+
+
+	@Test
+	public void testLoad_reparsesChangedFile() throws Exception
+	{
+		// === SETUP ===
+		var base = write("base.xml", "<beans/>");
+		load(base);
+
+		write("base.xml", "<beans><bean/></beans>");
+		var changed = load(base);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(2, f_loads.get());
+		Assert.assertEquals(1, changed.getRootElement().elements().size());
+	}
+
+
+	@Test
+	public void testLoad_reparsesSameSizeRewrite() throws Exception
+	{
+		// NOTE: only the change time tells the files apart
+		Assume
+			.assumeTrue(
+				FileSystems
+					.getDefault()
+					.supportedFileAttributeViews()
+					.contains("unix")
+			);
+
+		// === SETUP ===
+		var base         = write("base.xml", "<beans><a/></beans>");
+		var lastModified = Files.getLastModifiedTime(base.toPath());
+		load(base);
+
+		write("base.xml", "<beans><b/></beans>");
+		Files.setLastModifiedTime(base.toPath(), lastModified);
+		var changed = load(base);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(2, f_loads.get());
+		Assert.assertNotNull(changed.getRootElement().element("b"));
+	}
+
+
+	@Test
+	public void testLoad_missingFile() throws Exception
+	{
+		// === SETUP ===
+		var missing = new File(f_directory, "missing.xml");
+
+		try
+		{
+			load(missing);
+			Assert.fail("loaded a missing file");
+		}
+		catch (DocumentException e)
+		{
+			// === ASSERTIONS ===
+			Assert.assertEquals(1, f_loads.get());
+			Assert.assertEquals(0, f_cache.getUsedBytes());
+		}
+	}
+
+
+	@Test
+	public void testLoad_evictsLeastRecentlyUsed() throws Exception
+	{
+		// === SETUP ===
+		var first  = write("first.xml", "<beans/>");
+		var second = write("second.xml", "<beans/>");
+
+		// room for a single document
+		load(first);
+		f_cache.setMaxBytes(f_cache.getUsedBytes());
+
+		load(second);
+		load(first);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(3, f_loads.get());
+	}
+
+
+	private org.dom4j.Document load(
+		File file
+	) throws Exception
+	{
+		return f_cache.load(file, "test", null, this::parse);
+	}
+
+
+	private org.dom4j.Document parse(
+		File file,
+		StringBuilder prologBuffer
+	) throws DocumentException
+	{
+		f_loads.incrementAndGet();
+		return new SAXReader().read(file);
+	}
+
+
+	private File write(
+		String name,
+		String content
+	) throws Exception
+	{
+		var file = new File(f_directory, name);
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+		return file;
+	}
+}
@@ -0,0 +1,121 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class FileTransferTest
+{
+	private File f_directory;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("filetransfer").toFile();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testCopyIfChanged() throws Exception
+	{
+		// === SETUP ===
+		var source = write("source.xml", "<beans/>");
+		Files
+			.setLastModifiedTime(source.toPath(), FileTime.fromMillis(1_000_000));
+		var target = new File(f_directory, "sub/target.xml");
+
+		// === ASSERTIONS ===
+		Assert.assertTrue(
+			FileTransfer.copyIfChanged(source.toPath(), target.toPath())
+		);
+		Assert
+			.assertEquals("<beans/>", FileUtils.readFileToString(target, "UTF-8"));
+		Assert.assertEquals(source.lastModified(), target.lastModified());
+
+		Assert.assertFalse(
+			FileTransfer.copyIfChanged(source.toPath(), target.toPath())
+		);
+
+		write("source.xml", "<beans><bean/></beans>");
+		Assert.assertTrue(
+			FileTransfer.copyIfChanged(source.toPath(), target.toPath())
+		);
+		Assert.assertTrue(
+			FileTransfer.contentEquals(source.toPath(), target.toPath())
+		);
+	}
+
+
+	@Test
+	public void testCopy_permissions() throws Exception
+	{
+		// === SETUP ===
+		Assume
+			.assumeTrue(
+				f_directory.toPath().getFileSystem()
+					.supportedFileAttributeViews()
+					.contains("posix")
+			);
+		var source      = write("source.xml", "<beans/>");
+		var permissions = PosixFilePermissions.fromString("rw-r--r--");
+		Files.setPosixFilePermissions(source.toPath(), permissions);
+
+		var target = new File(f_directory, "target.xml");
+		FileTransfer.copy(source.toPath(), target.toPath());
+
+		// === ASSERTIONS ===
+		Assert
+			.assertEquals(
+				permissions,
+				Files.getPosixFilePermissions(target.toPath())
+			);
+	}
+
+
+	@Test
+	public void testDigest() throws Exception
+	{
+		// === SETUP ===
+		var content  = "<beans>" + "<bean/>".repeat(20_000) + "</beans>";
+		var file     = write("large.xml", content);
+
+		var expected = MessageDigest.getInstance("SHA-256");
+		expected.update(content.getBytes(StandardCharsets.UTF_8));
+		var digest   = MessageDigest.getInstance("SHA-256");
+		FileTransfer.digest(file.toPath(), digest);
+
+		// === ASSERTIONS ===
+		Assert.assertArrayEquals(expected.digest(), digest.digest());
+	}
+
+
+	private File write(
+		String name,
+		String content
+	) throws Exception
+	{
+		var file = new File(f_directory, name);
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+		return file;
+	}
+}
@@ -0,0 +1,149 @@
+package engineering.schumann.maven.plugin.xmlmerge.io;
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class XmlReaderFactoryTest
+{
+	private static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+		+ "<!DOCTYPE beans SYSTEM \"beans.dtd\">\n"
+		+ "<!-- header -->\n"
+		+ "<beans xmlns=\"urn:beans\" xmlns:p=\"urn:p\">\n"
+		+ "  <?marker data?>\n"
+		+ "  <bean id=\"a\" p:name=\"first\">&greeting;</bean>\n"
+		+ "  <p:bean><![CDATA[<raw>]]></p:bean>\n"
+		+ "  <!-- inner -->\n"
+		+ "</beans>\n";
+
+	private File                f_directory;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("readerfactory").toFile();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testRead_sameTreeForAllBackends() throws Exception
+	{
+		// === SETUP ===
+		write("beans.dtd", "<!ENTITY greeting \"hello\">");
+		var file     = write("beans.xml", DOCUMENT);
+
+		var expected = read(file, ParserBackend.SAX, false);
+
+		// === ASSERTIONS ===
+		for (var backend : ParserBackend.values())
+		{
+			Assert.assertEquals(
+				backend.toString(),
+				expected,
+				read(file, backend, false)
+			);
+			Assert.assertFalse(
+				backend.toString(),
+				read(file, backend, true).contains("inner")
+			);
+		}
+	}
+
+
+	@Test
+	public void testRead_encoding() throws Exception
+	{
+		// === SETUP ===
+		var file = new File(f_directory, "latin.xml");
+		FileUtils
+			.writeStringToFile(
+				file,
+				"<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n"
+					+ "<beans>\u00e9</beans>\n",
+				"ISO-8859-1"
+			);
+
+		// === ASSERTIONS ===
+		// NOTE: dom4j does not record the encoding read by SAX
+		for (var backend : List.of(ParserBackend.STAX, ParserBackend.WOODSTOX))
+		{
+			var document = new XmlReaderFactory(false, List.of(), true, backend)
+				.read(file);
+
+			Assert.assertEquals(
+				backend.toString(),
+				"ISO-8859-1",
+				document.getXMLEncoding()
+			);
+			Assert.assertEquals(
+				backend.toString(),
+				"\u00e9",
+				document.getRootElement().getText()
+			);
+		}
+	}
+
+
+	@Test
+	public void testForName() throws Exception
+	{
+		// === ASSERTIONS ===
+		Assert.assertEquals(
+			ParserBackend.WOODSTOX,
+			ParserBackend.forName(" Woodstox")
+		);
+		try
+		{
+			ParserBackend.forName("dom");
+			Assert.fail();
+		}
+		catch (IllegalArgumentException e)
+		{
+			Assert.assertTrue(e.getMessage().contains("jdk-sax"));
+		}
+	}
+
+
+	private String read(
+		File file,
+		ParserBackend backend,
+		boolean ignoreComments
+	) throws Exception
+	{
+		var factory = new XmlReaderFactory(
+			ignoreComments,
+			List.of(),
+			true,
+			backend
+		);
+
+		return factory.read(file).asXML();
+	}
+
+
+	private File write(
+		String name,
+		String content
+	) throws Exception
+	{
+		var file = new File(f_directory, name);
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+		return file;
+	}
+}
@@ -0,0 +1,72 @@
+package engineering.schumann.maven.plugin.xmlmerge.jfr;
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import engineering.schumann.maven.plugin.xmlmerge.stats.ExecutionStats;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+public class XmlMergerEventTest
+{
+	@Test
+	public void testFinish() throws Exception
+	{
+		// === SETUP ===
+		var file  = new File("beans-first.xml");
+		var stats = new ExecutionStats();
+		stats.assign("beans.xml", List.of(file));
+
+		// NOTE: not recorded, the size is never asked for
+		var ignored = new ParseEvent();
+		ignored.begin();
+		ignored
+			.finish(file, stats, "simple", () -> {
+				throw new AssertionError("size of an event not recorded");
+			});
+
+		var dump = Files.createTempFile("events", ".jfr");
+		try (var recording = new Recording())
+		{
+			recording.enable(ParseEvent.class);
+			recording.start();
+
+			var event = new ParseEvent();
+			event.begin();
+			event.finish(file, stats, "simple", () -> 42);
+
+			recording.stop();
+			recording.dump(dump);
+		}
+
+		List<RecordedEvent> events;
+		try
+		{
+			events = RecordingFile.readAllEvents(dump);
+		}
+		finally
+		{
+			Files.delete(dump);
+		}
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(1, events.size());
+		var event = events.get(0);
+		Assert
+			.assertEquals(
+				"engineering.schumann.xmlmerger.Parse",
+				event.getEventType().getName()
+			);
+		Assert.assertEquals(file.getAbsolutePath(), event.getString("path"));
+		Assert.assertEquals("beans.xml", event.getString("fileGroup"));
+		Assert.assertEquals("simple", event.getString("mergeMode"));
+		Assert.assertEquals(42, event.getLong("bytes"));
+	}
+}
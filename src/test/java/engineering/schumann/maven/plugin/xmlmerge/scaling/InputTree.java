@@ -0,0 +1,211 @@
+package engineering.schumann.maven.plugin.xmlmerge.scaling;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+
+
+/**
+ * Generates the input of a scaling run: fragments of bean definitions, spread
+ * over nested directories.
+ */
+class InputTree
+{
+	/*
+	 * ====================
+	 *
+	 * CONSTANTS
+	 *
+	 * ====================
+	 */
+	private static final String XDT_NAMESPACE = "http://schemas.microsoft.com/XML-Document-Transform";
+
+
+	/*
+	 * ====================
+	 *
+	 * FIELDS
+	 *
+	 * ====================
+	 */
+	private final int f_groups;
+
+	private final int f_fragments;
+
+	private final int f_elements;
+
+	private final int f_depth;
+
+	private long      f_bytes;
+
+
+	/*
+	 * ====================
+	 *
+	 * CONSTRUCTOR
+	 *
+	 * ====================
+	 */
+	/**
+	 * @param groups
+	 *            number of file groups, i.e. output files of mergeAllIntoOne
+	 * @param fragments
+	 *            number of fragments per group
+	 * @param elements
+	 *            number of beans per fragment
+	 * @param depth
+	 *            number of directory levels the fragments are spread over
+	 */
+	InputTree(
+		int groups,
+		int fragments,
+		int elements,
+		int depth
+	)
+	{
+		f_groups    = groups;
+		f_fragments = fragments;
+		f_elements  = elements;
+		f_depth     = depth;
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * METHODS
+	 *
+	 * ====================
+	 */
+	/**
+	 * Writes fragments named "group&lt;g&gt;-fragment&lt;f&gt;.xml", to be
+	 * grouped by mergeAllIntoOne.
+	 */
+	void writeGroupedFragments(
+		File inputDirectory
+	) throws IOException
+	{
+		for (var group = 0; group < f_groups; group++)
+			for (var fragment = 0; fragment < f_fragments; fragment++)
+				write(
+					new File(
+						directoryOf(inputDirectory, fragment),
+						"group%d-fragment%d.xml".formatted(group, fragment)
+					),
+					"g%df%db".formatted(group, fragment),
+					false
+				);
+	}
+
+
+	/**
+	 * Writes a base document and an XDT fragment of the same name for every
+	 * fragment, to be merged pairwise by mergexml.
+	 */
+	void writePairs(
+		File inputDirectory,
+		File baseDirectory
+	) throws IOException
+	{
+		for (var group = 0; group < f_groups; group++)
+			for (var fragment = 0; fragment < f_fragments; fragment++)
+			{
+				var name     = "group%d-fragment%d.xml".formatted(group, fragment);
+				var idPrefix = "g%df%db".formatted(group, fragment);
+
+				write(
+					new File(directoryOf(baseDirectory, fragment), name),
+					idPrefix + "base",
+					false
+				);
+				write(
+					new File(directoryOf(inputDirectory, fragment), name),
+					idPrefix,
+					true
+				);
+			}
+	}
+
+
+	/**
+	 * @return the number of bytes written so far
+	 */
+	long getBytes()
+	{
+		return f_bytes;
+	}
+
+
+	int getGroups()
+	{
+		return f_groups;
+	}
+
+
+	int getFragments()
+	{
+		return f_fragments;
+	}
+
+
+	int getFileCount()
+	{
+		return f_groups * f_fragments;
+	}
+
+
+	private File directoryOf(
+		File root,
+		int fragment
+	)
+	{
+		var directory = root;
+		for (var level = 0; level < fragment % (f_depth + 1); level++)
+			directory = new File(directory, "level" + level);
+
+		return directory;
+	}
+
+
+	private void write(
+		File file,
+		String idPrefix,
+		boolean xdt
+	) throws IOException
+	{
+		var xml = new StringBuilder(f_elements * 120);
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		xml
+			.append(
+				xdt
+					? "<beans xmlns:xdt=\"" + XDT_NAMESPACE + "\">\n"
+					: "<beans>\n"
+			);
+		for (var i = 0; i < f_elements; i++)
+		{
+			xml
+				.append("\t<bean id=\"")
+				.append(idPrefix)
+				.append(i)
+				.append("\" class=\"com.example.Bean")
+				.append(i % 97)
+				.append('"')
+				.append(
+					xdt
+						? " xdt:Transform=\"Insert\">\n"
+						: ">\n"
+				)
+				.append("\t\t<property name=\"value\" value=\"")
+				.append(i)
+				.append("\"/>\n\t</bean>\n");
+		}
+		xml.append("</beans>\n");
+
+		var content = xml.toString().getBytes(StandardCharsets.UTF_8);
+		FileUtils.writeByteArrayToFile(file, content);
+		f_bytes += content.length;
+	}
+}
@@ -0,0 +1,473 @@
+package engineering.schumann.maven.plugin.xmlmerge.scaling;
+
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assert;
+import org.junit.Test;
+
+import be.hikage.maven.plugin.xmlmerge.MergeTwoXmlIntoOneXmlMojo;
+import be.hikage.maven.plugin.xmlmerge.XdtMerger;
+import engineering.schumann.maven.plugin.xmlmerge.MergeMultipleXmlToSingleXmlMojo;
+
+
+/**
+ * Runs both goals end to end on generated input trees of growing size and
+ * records wall time and peak heap of every run. Not part of the normal build,
+ * run it with
+ *
+ * <pre>
+ * mvn -Pscaling test -Dscaling.fragments=10,100,1000 -Dscaling.maxGrowth=3
+ * </pre>
+ *
+ * System properties:
+ * <ul>
+ * <li>scaling.groups: file groups, default 10</li>
+ * <li>scaling.fragments: fragments per group, one run per value, default
+ * "10,100,1000"</li>
+ * <li>scaling.elements: beans per fragment, default 20</li>
+ * <li>scaling.depth: directory levels the fragments are spread over, default
+ * 2</li>
+ * <li>scaling.report: the JSON report written, default
+ * target/scaling/scaling-report.json</li>
+ * <li>scaling.maxMillis: fails a run taking longer</li>
+ * <li>scaling.maxHeapMb: fails a run using more heap</li>
+ * <li>scaling.maxGrowth: fails a goal whose time per file grows by more than
+ * this factor from the smallest to the largest run, i.e. scales worse than
+ * linearly</li>
+ * </ul>
+ */
+public class ScalingTest
+{
+	/*
+	 * ====================
+	 *
+	 * TYPES
+	 *
+	 * ====================
+	 */
+	private static final class Run
+	{
+		private String f_goal;
+
+		private int    f_fragments;
+
+		private int    f_files;
+
+		private long   f_inputBytes;
+
+		private long   f_wallMillis;
+
+		private long   f_peakHeapBytes;
+
+
+		private double getMillisPerFile()
+		{
+			return (double) f_wallMillis / Math.max(1, f_files);
+		}
+
+
+		private String toJson()
+		{
+			// NOTE: JSON numbers, whatever the default locale
+			return String
+				.format(
+					Locale.ROOT,
+					"{\"goal\": \"%s\", \"fragments\": %d, \"files\": %d, "
+						+ "\"inputBytes\": %d, \"wallMillis\": %d, "
+						+ "\"peakHeapBytes\": %d, \"millisPerFile\": %.3f}",
+					f_goal,
+					f_fragments,
+					f_files,
+					f_inputBytes,
+					f_wallMillis,
+					f_peakHeapBytes,
+					getMillisPerFile()
+				);
+		}
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * TESTS
+	 *
+	 * ====================
+	 */
+	@Test
+	public void testScaling() throws Exception
+	{
+		// === SETUP ===
+		var groups    = Integer.getInteger("scaling.groups", 10);
+		var elements  = Integer.getInteger("scaling.elements", 20);
+		var depth     = Integer.getInteger("scaling.depth", 2);
+		var fragments = Arrays
+			.stream(
+				System.getProperty("scaling.fragments", "10,100,1000").split(",")
+			)
+			.map(String::trim)
+			.map(Integer::valueOf)
+			.sorted()
+			.collect(Collectors.toList());
+		var report    = new File(
+			System
+				.getProperty(
+					"scaling.report",
+					"target/scaling/scaling-report.json"
+				)
+		);
+		var work      = new File(report.getParentFile(), "work");
+
+		// === WARMUP ===
+		// NOTE: the first run would pay for class loading and JIT otherwise,
+		// which hides growth between the smallest and the largest run
+		var warmup = new InputTree(groups, fragments.get(0), elements, depth);
+		runMergeAllIntoOne(warmup, new File(work, "mergeAllIntoOne"));
+		runMergeXml(warmup, new File(work, "mergexml"));
+
+		// === BODY ===
+		var runs = new ArrayList<Run>();
+		for (var fragmentCount : fragments)
+		{
+			var tree = new InputTree(groups, fragmentCount, elements, depth);
+
+			runs
+				.add(runMergeAllIntoOne(tree, new File(work, "mergeAllIntoOne")));
+			runs.add(runMergeXml(tree, new File(work, "mergexml")));
+		}
+		FileUtils.deleteDirectory(work);
+
+		var failures = checkThresholds(runs);
+		writeReport(report, groups, elements, depth, runs, failures);
+
+		// === ASSERTIONS ===
+		Assert.assertTrue(String.join("\n", failures), failures.isEmpty());
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * RUNS
+	 *
+	 * ====================
+	 */
+	private Run runMergeAllIntoOne(
+		InputTree tree,
+		File directory
+	) throws Exception
+	{
+		FileUtils.deleteDirectory(directory);
+		var input  = new File(directory, "input");
+		var output = new File(directory, "output");
+		tree.writeGroupedFragments(input);
+
+		var mojo = new MergeMultipleXmlToSingleXmlMojo();
+		configure(mojo, input, output, output);
+		set(mojo, "mergeFilenamePattern", "(?<fileGroup>group\\d+)-.*\\.xml");
+		set(mojo, "cleanOutputFile", true);
+		set(mojo, "failIfNoneFound", true);
+		set(mojo, "mergeMode", "simple");
+		set(mojo, "inMemory", true);
+		set(mojo, "streaming", false);
+		set(mojo, "parallelism", 1);
+		set(mojo, "virtualThreads", false);
+
+		var run = measure(mojo, "mergeAllIntoOne", tree);
+		Assert.assertEquals(tree.getGroups(), output.list().length);
+
+		return run;
+	}
+
+
+	private Run runMergeXml(
+		InputTree tree,
+		File directory
+	) throws Exception
+	{
+		FileUtils.deleteDirectory(directory);
+		var input  = new File(directory, "input");
+		var base   = new File(directory, "base");
+		var output = new File(directory, "output");
+		tree.writePairs(input, base);
+
+		var mojo = new MergeTwoXmlIntoOneXmlMojo();
+		configure(mojo, input, base, output);
+		set(mojo, "mergeFilenamePattern", "()(.*\\.xml)");
+		set(mojo, "xmlMerger", new XdtMerger());
+
+		return measure(mojo, "mergexml", tree);
+	}
+
+
+	private Run measure(
+		AbstractMojo mojo,
+		String goal,
+		InputTree tree
+	) throws Exception
+	{
+		var heapPools = ManagementFactory
+			.getMemoryPoolMXBeans()
+			.stream()
+			.filter(pool -> pool.getType() == MemoryType.HEAP)
+			.collect(Collectors.toList());
+
+		// NOTE: so the peak is what this run needed, not garbage of the
+		// previous one
+		System.gc();
+		heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+		var started = System.nanoTime();
+		mojo.execute();
+		var wallMillis = (System.nanoTime() - started) / 1_000_000;
+
+		var run = new Run();
+		run.f_goal          = goal;
+		run.f_fragments     = tree.getFragments();
+		run.f_files         = tree.getFileCount();
+		run.f_inputBytes    = tree.getBytes();
+		run.f_wallMillis    = wallMillis;
+		// NOTE: pools peak at different times, so this overestimates a bit
+		run.f_peakHeapBytes = heapPools
+			.stream()
+			.mapToLong(pool -> pool.getPeakUsage().getUsed())
+			.sum();
+
+		System.out.println("[scaling] " + run.toJson());
+
+		return run;
+	}
+
+
+	/**
+	 * Sets the parameters shared by both goals to their defaults.
+	 */
+	private static void configure(
+		AbstractMojo mojo,
+		File inputDirectory,
+		File baseDirectory,
+		File outputDirectory
+	) throws Exception
+	{
+		set(mojo, "inputDirectory", inputDirectory);
+		set(mojo, "baseDirectory", baseDirectory);
+		set(mojo, "outputDirectory", outputDirectory);
+		set(
+			mojo,
+			"stateDirectory",
+			new File(outputDirectory.getParentFile(), "state")
+		);
+		set(mojo, "removeMergeDocumentAfterProcessing", false);
+		set(mojo, "processProlog", false);
+		set(mojo, "ignoreComments", false);
+		set(mojo, "parseThreads", 1);
+		set(mojo, "parseReadAhead", 16);
+		set(mojo, "scanThreads", 1);
+		set(mojo, "incremental", false);
+		set(mojo, "loadExternalDtds", true);
+		set(mojo, "parserBackend", "sax");
+		set(mojo, "outputFormat", "pretty");
+		set(mojo, "outputEncoding", "UTF-8");
+		set(mojo, "documentCacheSize", 128);
+
+		// NOTE: logging every file would be measured as well
+		mojo
+			.setLog(
+				new SystemStreamLog()
+				{
+					@Override
+					public boolean isInfoEnabled()
+					{
+						return false;
+					}
+
+
+					@Override
+					public void info(
+						CharSequence content
+					)
+					{
+					}
+				}
+			);
+	}
+
+
+	/**
+	 * Sets a parameter like Maven does, whatever its visibility.
+	 */
+	private static void set(
+		Object mojo,
+		String name,
+		Object value
+	) throws Exception
+	{
+		for (
+			Class<?> type = mojo.getClass();
+			type != null;
+			type = type.getSuperclass()
+		)
+		{
+			try
+			{
+				var field = type.getDeclaredField(name);
+				field.setAccessible(true);
+				field.set(mojo, value);
+
+				// === SUCCESS ===
+				return;
+			}
+			catch (NoSuchFieldException e)
+			{
+				// declared by a superclass
+				continue;
+			}
+		}
+
+		// === FAIL ===
+		throw new NoSuchFieldException(name);
+	}
+
+
+	/*
+	 * ====================
+	 *
+	 * RESULTS
+	 *
+	 * ====================
+	 */
+	private static List<String> checkThresholds(
+		List<Run> runs
+	)
+	{
+		var failures  = new ArrayList<String>();
+		var maxMillis = Long.getLong("scaling.maxMillis");
+		var maxHeapMb = Long.getLong("scaling.maxHeapMb");
+		var maxGrowth = System.getProperty("scaling.maxGrowth");
+
+		for (var run : runs)
+		{
+			if (maxMillis != null && run.f_wallMillis > maxMillis)
+				failures
+					.add(
+						"%s with %d fragments took %d ms, more than %d ms"
+							.formatted(
+								run.f_goal,
+								run.f_fragments,
+								run.f_wallMillis,
+								maxMillis
+							)
+					);
+			if (maxHeapMb != null && run.f_peakHeapBytes > maxHeapMb << 20)
+				failures
+					.add(
+						"%s with %d fragments used %d MB of heap, more than %d MB"
+							.formatted(
+								run.f_goal,
+								run.f_fragments,
+								run.f_peakHeapBytes >> 20,
+								maxHeapMb
+							)
+					);
+		}
+
+		if (maxGrowth == null)
+			// === SUCCESS ===
+			return failures;
+
+		// NOTE: runs are in order of size, per goal
+		var byGoal = new LinkedHashMap<String, List<Run>>();
+		for (var run : runs)
+			byGoal.computeIfAbsent(run.f_goal, key -> new ArrayList<>()).add(run);
+		for (Map.Entry<String, List<Run>> goal : byGoal.entrySet())
+		{
+			var smallest = goal.getValue().get(0);
+			var largest  = goal.getValue().get(goal.getValue().size() - 1);
+			var growth   = largest.getMillisPerFile()
+				/ Math.max(0.001, smallest.getMillisPerFile());
+			if (growth > Double.parseDouble(maxGrowth))
+				failures
+					.add(
+						("%s time per file grew %.1f times from %d to %d "
+							+ "fragments, more than %s")
+							.formatted(
+								goal.getKey(),
+								growth,
+								smallest.f_fragments,
+								largest.f_fragments,
+								maxGrowth
+							)
+					);
+		}
+
+		return failures;
+	}
+
+
+	private static void writeReport(
+		File report,
+		int groups,
+		int elements,
+		int depth,
+		List<Run> runs,
+		List<String> failures
+	) throws Exception
+	{
+		var json = new StringBuilder();
+		json
+			.append("{\n")
+			.append("  \"timestamp\": \"")
+			.append(Instant.now())
+			.append("\",\n")
+			.append("  \"javaVersion\": \"")
+			.append(System.getProperty("java.version"))
+			.append("\",\n")
+			.append("  \"maxHeapBytes\": ")
+			.append(Runtime.getRuntime().maxMemory())
+			.append(",\n")
+			.append("  \"groups\": ")
+			.append(groups)
+			.append(",\n")
+			.append("  \"elements\": ")
+			.append(elements)
+			.append(",\n")
+			.append("  \"depth\": ")
+			.append(depth)
+			.append(",\n")
+			.append("  \"runs\": [\n    ")
+			.append(
+				runs
+					.stream()
+					.map(Run::toJson)
+					.collect(Collectors.joining(",\n    "))
+			)
+			.append("\n  ],\n")
+			.append("  \"failures\": [")
+			.append(
+				failures
+					.stream()
+					.map(failure -> "\"" + failure.replace("\"", "\\\"") + "\"")
+					.collect(Collectors.joining(", "))
+			)
+			.append("]\n}\n");
+
+		FileUtils
+			.writeStringToFile(report, json.toString(), StandardCharsets.UTF_8);
+	}
+}
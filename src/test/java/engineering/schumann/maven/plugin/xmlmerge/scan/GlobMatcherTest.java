@@ -0,0 +1,54 @@
+package engineering.schumann.maven.plugin.xmlmerge.scan;
+
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+
+public class GlobMatcherTest
+{
+	@Test
+	public void testMatches()
+	{
+		// === SETUP ===
+		var matcher = new GlobMatcher(
+			List.of("**/target/**", "spring/*-context.xml", "conf/**/lo?.xml")
+		);
+
+		// === ASSERTIONS ===
+		Assert.assertTrue(matcher.matches(Path.of("target/beans.xml")));
+		Assert.assertTrue(matcher.matches(Path.of("a/b/target/c/beans.xml")));
+		Assert.assertTrue(matcher.matches(Path.of("spring/app-context.xml")));
+		Assert.assertTrue(matcher.matches(Path.of("conf/log.xml")));
+		Assert.assertTrue(matcher.matches(Path.of("conf/a/b/log.xml")));
+
+		Assert.assertFalse(matcher.matches(Path.of("targets/beans.xml")));
+		Assert.assertFalse(matcher.matches(Path.of("spring/a/app-context.xml")));
+		Assert.assertFalse(matcher.matches(Path.of("spring/app-context.xml.bak")));
+		Assert.assertFalse(matcher.matches(Path.of("conf/logs.xml")));
+	}
+
+
+	@Test
+	public void testMatchesBelow()
+	{
+		// === SETUP ===
+		var matcher = new GlobMatcher(List.of("**/target/**", "spring/*.xml"));
+
+		// === ASSERTIONS ===
+		Assert.assertTrue(matcher.matchesAllBelow(Path.of("module/target")));
+		Assert.assertFalse(matcher.matchesAllBelow(Path.of("module")));
+		Assert.assertFalse(matcher.matchesAllBelow(Path.of("spring")));
+
+		Assert.assertTrue(matcher.matchesAnyBelow(Path.of("spring")));
+		Assert.assertTrue(matcher.matchesAnyBelow(Path.of("module")));
+
+		var springOnly = new GlobMatcher(List.of("spring/*.xml"));
+		Assert.assertTrue(springOnly.matchesAnyBelow(Path.of("")));
+		Assert.assertFalse(springOnly.matchesAnyBelow(Path.of("module")));
+		Assert.assertFalse(springOnly.matchesAnyBelow(Path.of("spring/old")));
+	}
+}
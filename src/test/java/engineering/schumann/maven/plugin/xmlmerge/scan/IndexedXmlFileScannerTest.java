@@ -0,0 +1,153 @@
+package engineering.schumann.maven.plugin.xmlmerge.scan;
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class IndexedXmlFileScannerTest
+{
+	private File f_directory;
+
+	private File f_indexFile;
+
+	private long f_lastModified;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		var temp = Files.createTempDirectory("index").toFile();
+		f_directory = new File(temp, "input");
+		f_indexFile = new File(temp, "state/input.scanindex");
+
+		write("beans-first.xml");
+		write("more/beans-second.xml");
+		write("more/deeper/beans-third.xml");
+		write("target/beans-output.xml");
+		age();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory.getParentFile());
+	}
+
+
+	@Test
+	public void testScan() throws Exception
+	{
+		// === SETUP ===
+		var expected = scan(
+			new XmlFileScanner("beans-.*\\.xml", List.of("/target$"))
+		);
+		var scanner  = createScanner(List.of("/target$"));
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(expected, scan(scanner));
+		Assert.assertEquals(3, scanner.getListed());
+		Assert.assertTrue(f_indexFile.isFile());
+
+		Assert.assertEquals(expected, scan(scanner));
+		Assert.assertEquals(0, scanner.getListed());
+		Assert.assertEquals(3, scanner.getUnchanged());
+
+		// NOTE: only the directory changed is listed again
+		write("more/beans-fourth.xml");
+		Files
+			.setLastModifiedTime(
+				new File(f_directory, "more").toPath(),
+				FileTime.fromMillis(f_lastModified + 1000)
+			);
+		var found = scan(scanner);
+		Assert.assertEquals(1, scanner.getListed());
+		Assert.assertEquals(4, found.size());
+		Assert.assertTrue(found.contains("more/beans-fourth.xml"));
+	}
+
+
+	@Test
+	public void testScan_settingsChanged() throws Exception
+	{
+		// === SETUP ===
+		scan(createScanner(List.of("/target$")));
+		var scanner = createScanner(List.of());
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(4, scan(scanner).size());
+		Assert.assertEquals(4, scanner.getListed());
+	}
+
+
+	private IndexedXmlFileScanner createScanner(
+		List<String> excludes
+	)
+	{
+		return new IndexedXmlFileScanner(
+			"beans-.*\\.xml",
+			excludes,
+			List.of(),
+			List.of(),
+			f_indexFile
+		);
+	}
+
+
+	private List<String> scan(
+		XmlFileScanner scanner
+	) throws Exception
+	{
+		var found = new ArrayList<String>();
+		scanner
+			.scan(
+				f_directory.toPath(),
+				file -> found
+					.add(
+						f_directory
+							.toPath()
+							.relativize(file)
+							.toString()
+							.replace(File.separatorChar, '/')
+					)
+			);
+
+		return found;
+	}
+
+
+	/**
+	 * Moves all modification times into the past, so the index trusts them.
+	 */
+	private void age() throws Exception
+	{
+		f_lastModified = System.currentTimeMillis() - 60_000;
+
+		var time = FileTime.fromMillis(f_lastModified);
+		try (var paths = Files.walk(f_directory.toPath()))
+		{
+			for (var path : (Iterable<Path>) paths::iterator)
+				Files.setLastModifiedTime(path, time);
+		}
+	}
+
+
+	private void write(
+		String name
+	) throws Exception
+	{
+		FileUtils
+			.writeStringToFile(new File(f_directory, name), "<beans/>", "UTF-8");
+	}
+}
@@ -0,0 +1,160 @@
+package engineering.schumann.maven.plugin.xmlmerge.scan;
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class XmlFileScannerTest
+{
+	private File f_directory;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("scanner").toFile();
+
+		write("beans-first.xml");
+		write("beans-first.txt");
+		write("beans-skipped.xml");
+		write("more/beans-second.xml");
+		write("target/beans-output.xml");
+		write("node_modules/lib/beans-lib.xml");
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testScan() throws Exception
+	{
+		// === SETUP ===
+		var scanner = new XmlFileScanner(
+			"beans-.*\\.xml",
+			List.of("/target$", "/node_modules$", "beans-skipped\\.xml")
+		);
+
+		// === ASSERTIONS ===
+		Assert
+			.assertEquals(
+				List.of("beans-first.xml", "more/beans-second.xml"),
+				scan(scanner)
+			);
+	}
+
+
+	@Test
+	public void testScan_noExcludes() throws Exception
+	{
+		// === SETUP ===
+		var scanner = new XmlFileScanner("beans-.*\\.xml", List.of());
+
+		// === ASSERTIONS ===
+		Assert.assertEquals(5, scan(scanner).size());
+	}
+
+
+	@Test
+	public void testScan_globs() throws Exception
+	{
+		// === SETUP ===
+		var scanner = new XmlFileScanner(
+			"beans-.*\\.xml",
+			List.of(),
+			List.of("**/beans-*.xml"),
+			List.of("**/target/**", "node_modules/", "beans-s?ipped.xml")
+		);
+
+		// === ASSERTIONS ===
+		Assert
+			.assertEquals(
+				List.of("beans-first.xml", "more/beans-second.xml"),
+				scan(scanner)
+			);
+	}
+
+
+	@Test
+	public void testScan_parallel() throws Exception
+	{
+		// === SETUP ===
+		write("more/a/beans-third.xml");
+		write("beans-zero.xml");
+		var scanner = new ParallelXmlFileScanner(
+			"beans-.*\\.xml",
+			List.of("/target$", "/node_modules$", "beans-skipped\\.xml"),
+			List.of(),
+			List.of(),
+			4
+		);
+
+		// NOTE: in the order found, not sorted by the test
+		var found = new ArrayList<String>();
+		scanner.scan(f_directory.toPath(), file -> found.add(relativize(file)));
+
+		// === ASSERTIONS ===
+		Assert
+			.assertEquals(
+				List
+					.of(
+						"beans-first.xml",
+						"beans-zero.xml",
+						"more/a/beans-third.xml",
+						"more/beans-second.xml"
+					),
+				found
+			);
+	}
+
+
+	private List<String> scan(
+		XmlFileScanner scanner
+	) throws Exception
+	{
+		var found = new TreeSet<String>();
+		scanner
+			.scan(
+				f_directory.toPath(),
+				file -> found.add(relativize(file))
+			);
+
+		return new ArrayList<>(found);
+	}
+
+
+	private String relativize(
+		Path file
+	)
+	{
+		return f_directory
+			.toPath()
+			.relativize(file)
+			.toString()
+			.replace(File.separatorChar, '/');
+	}
+
+
+	private void write(
+		String name
+	) throws Exception
+	{
+		FileUtils
+			.writeStringToFile(new File(f_directory, name), "<beans/>", "UTF-8");
+	}
+}
@@ -0,0 +1,127 @@
+package engineering.schumann.maven.plugin.xmlmerge.stats;
+
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import engineering.schumann.maven.plugin.xmlmerge.stats.ExecutionStats.Phase;
+
+
+public class ExecutionStatsTest
+{
+	private File f_directory;
+
+
+	@Before
+	public void setUp() throws Exception
+	{
+		f_directory = Files.createTempDirectory("stats").toFile();
+	}
+
+
+	@After
+	public void tearDown() throws Exception
+	{
+		FileUtils.deleteDirectory(f_directory);
+	}
+
+
+	@Test
+	public void testWriteReport() throws Exception
+	{
+		// === SETUP ===
+		var first  = write("beans-first.xml", "<beans/>");
+		var second = write("beans-second.xml", "<beans><bean/></beans>");
+		var output = new File(f_directory, "beans.xml");
+		var other  = write("other.xml", "<other/>");
+
+		var stats  = new ExecutionStats();
+		stats.assign("beans \"quoted\"", List.of(first, second, output));
+
+		stats.add(null, Phase.SCAN, 7_000_000);
+		stats.addParsed(first, 2_000_000);
+		stats.addParsed(second, 3_000_000);
+		stats.addParsed(other, 1_000_000);
+		stats.add(output, Phase.MERGE, 5_000_000);
+		stats.addWritten(output, 100);
+
+		var report = new File(f_directory, "state/stats.json");
+		stats.writeReport(report, "mergeAllIntoOne");
+
+		// === ASSERTIONS ===
+		var json  = new ObjectMapper().readTree(report);
+		Assert.assertEquals("mergeAllIntoOne", json.get("goal").asText());
+
+		var beans = json.get("groups").get("beans \"quoted\"");
+		Assert.assertEquals(5, beans.get("parseMillis").asLong());
+		Assert.assertEquals(5, beans.get("mergeMillis").asLong());
+		Assert.assertEquals(0, beans.get("scanMillis").asLong());
+		Assert.assertEquals(2, beans.get("documents").asLong());
+		Assert
+			.assertEquals(
+				first.length() + second.length(),
+				beans.get("bytesRead").asLong()
+			);
+		Assert.assertEquals(100, beans.get("bytesWritten").asLong());
+
+		var others = json.get("groups").get(ExecutionStats.OTHER);
+		Assert.assertEquals(7, others.get("scanMillis").asLong());
+		Assert.assertEquals(1, others.get("documents").asLong());
+
+		var total  = json.get("total");
+		Assert.assertEquals(6, total.get("parseMillis").asLong());
+		Assert.assertEquals(3, total.get("documents").asLong());
+		Assert.assertEquals(100, total.get("bytesWritten").asLong());
+	}
+
+
+	@Test
+	public void testTimed() throws Exception
+	{
+		// === SETUP ===
+		var waited    = new LongAdder();
+		var documents = ExecutionStats
+			.timed(
+				() -> List.of("a", "b").stream().peek(document -> {
+					try
+					{
+						Thread.sleep(20);
+					}
+					catch (InterruptedException e)
+					{
+						throw new IllegalStateException(e);
+					}
+				}).iterator(),
+				waited
+			);
+
+		var merged    = new StringBuilder();
+		for (var document : documents)
+			merged.append(document);
+
+		// === ASSERTIONS ===
+		Assert.assertEquals("ab", merged.toString());
+		Assert.assertTrue(waited.sum() >= 40_000_000);
+	}
+
+
+	private File write(
+		String name,
+		String content
+	) throws Exception
+	{
+		var file = new File(f_directory, name);
+		FileUtils.writeStringToFile(file, content, "UTF-8");
+		return file;
+	}
+}